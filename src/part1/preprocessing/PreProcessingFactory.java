@@ -0,0 +1,109 @@
+package part1.preprocessing;
+
+import java.util.Set;
+
+import part1.stemming.StemCache;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Hands out DocumentPreProcessing objects that can be used by many threads at the same time. A DocumentPreProcessing
+ * keeps a PorterStemmer and the bigrams of its current text , so it must never be used by two threads. Every object
+ * of a factory has its own stemmer and bigrams , and shares with the others the stop words , that can not be modified ,
+ * and the stem cache , whose entries are never modified.
+ *
+ * get() returns the object of the current thread , that is created the first time the thread asks for it.
+ * create() returns a new object , for something that is used by one thread at a time , like a worker of a pool.
+ */
+public class PreProcessingFactory
+{
+	
+	/**
+	 * The factory of the default stop words and stem cache. It is created the first time it is requested.
+	 */
+	private static PreProcessingFactory defaultFactory;
+	
+	/**
+	 * The stop words of all the objects.
+	 */
+	private Set<String> stopwords;
+	
+	/**
+	 * The stem cache of all the objects.
+	 */
+	private StemCache cache;
+	
+	/**
+	 * The object of every thread.
+	 */
+	private ThreadLocal<DocumentPreProcessing> preprocessors;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param stopwords The stop words of all the objects , as they are returned by DocumentPreProcessing.loadStopwords().
+	 * @param cache The stem cache of all the objects.
+	 */
+	public PreProcessingFactory(Set<String> stopwords , StemCache cache)
+	{
+		this.stopwords = stopwords;
+		this.cache = cache;
+		
+		this.preprocessors = new ThreadLocal<DocumentPreProcessing>()
+		{
+			@Override
+			protected DocumentPreProcessing initialValue()
+			{
+				return create();
+			}
+		};
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the factory of the default stop words file and of the default stem cache , creating it if needed.
+	 *
+	 * @return The shared factory.
+	 */
+	public static synchronized PreProcessingFactory getDefault()
+	{
+		if(defaultFactory == null)
+		{
+			defaultFactory = new PreProcessingFactory(DocumentPreProcessing.loadStopwords(DocumentPreProcessing.STOPWORDS_PATH) , StemCache.getDefault());
+		}
+		
+		return defaultFactory;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the object of the current thread. It is the same object every time the same thread calls it.
+	 *
+	 * @return preprocessing The object of the thread.
+	 */
+	public DocumentPreProcessing get()
+	{
+		return this.preprocessors.get();
+	}
+	
+	
+	
+	
+	/**
+	 * Creates a new object , that must be used by one thread at a time.
+	 *
+	 * @return preprocessing The new object.
+	 */
+	public DocumentPreProcessing create()
+	{
+		return new DocumentPreProcessing(this.stopwords , this.cache);
+	}
+}
\ No newline at end of file
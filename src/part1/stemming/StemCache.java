@@ -0,0 +1,265 @@
+package part1.stemming;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Keeps the stems of the words that were stemmed lately , so that a word that is seen again is not stemmed again.
+ * The cache has a fixed number of slots. The hash of a word chooses a pair of slots , and the word can only be kept
+ * in one of them : a new word goes to the first slot , the word that was there moves to the second one ,
+ * and the word of the second one is evicted. An entry is never modified after it is created , so the cache can be shared
+ * by many threads without locks : a thread sees either an older entry or a newer one , and both have the right stem for their word.
+ *
+ * The stemming itself is done with the PorterStemmer of the caller , because a PorterStemmer is not thread safe.
+ * The hits and the misses are counted in stripes , chosen by the id of the thread and each one in its own cache line ,
+ * and they are added up when they are read , so the threads do not all write to the same counters for every word.
+ */
+public class StemCache
+{
+	
+	/**
+	 * The number of the slots of the default cache.
+	 */
+	public static final int DEFAULT_SIZE = 1 << 16;
+	
+	/**
+	 * The words that are longer than this are stemmed without being cached.
+	 */
+	private static final int MAX_WORD_LENGTH = 32;
+	
+	/**
+	 * The number of the stripes of the counters. It is a power of two.
+	 */
+	private static final int STRIPES = 64;
+	
+	/**
+	 * The distance in longs between two stripes , so that every stripe is in its own cache line (128 bytes).
+	 */
+	private static final int STRIPE_WIDTH = 16;
+	
+	/**
+	 * The cache that is shared by all the analyzers. It is created the first time it is requested.
+	 */
+	private static StemCache defaultCache;
+	
+	/**
+	 * The entries of the cache. A slot is null if no word has been kept in it yet.
+	 */
+	private Entry[] entries;
+	
+	/**
+	 * The number of the slots minus two , to find the first slot of the pair of a hash.
+	 */
+	private int mask;
+	
+	/**
+	 * The counters of the stripes. The hits of a stripe are at its first element and the misses at the next one.
+	 */
+	private AtomicLongArray counters;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param size The number of the slots. It is rounded up to a power of two.
+	 */
+	public StemCache(int size)
+	{
+		int slots = Integer.highestOneBit(Math.max(size , 2) - 1) << 1;
+		
+		this.entries = new Entry[slots];
+		this.mask = slots - 2;
+		this.counters = new AtomicLongArray(STRIPES * STRIPE_WIDTH);
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the cache that is shared by all the analyzers , creating it if needed.
+	 *
+	 * @return The shared cache.
+	 */
+	public static synchronized StemCache getDefault()
+	{
+		if(defaultCache == null) defaultCache = new StemCache(DEFAULT_SIZE);
+		
+		return defaultCache;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the stem of a word , from the cache or by stemming it with the given stemmer.
+	 *
+	 * @param word The chars of the word , from 0 to length. They must be the chars that are given to the stemmer.
+	 * @param length The length of the word.
+	 * @param stemmer The stemmer that stems the word if it is not in the cache. It must not be used by another thread.
+	 *
+	 * @return stem The stem of the word.
+	 */
+	public String stem(char[] word , int length , PorterStemmer stemmer)
+	{
+		int hash = WordHash.hash(word , 0 , length);
+		int slot = hash & this.mask;
+		int stripe = ((int)Thread.currentThread().getId() & (STRIPES - 1)) * STRIPE_WIDTH;
+		
+		for(int i = slot; i < slot + 2; i++)
+		{
+			Entry entry = this.entries[i];
+			
+			if(entry != null && entry.hash == hash && entry.matches(word , length))
+			{
+				this.counters.incrementAndGet(stripe);
+				return entry.stem;
+			}
+		}
+		
+		this.counters.incrementAndGet(stripe + 1);
+		
+		stemmer.add(word , length);
+		stemmer.stem();
+		
+		String stem = stemmer.toString();
+		
+		if(length <= MAX_WORD_LENGTH)
+		{
+			char[] key = new char[length];
+			System.arraycopy(word , 0 , key , 0 , length);
+			
+			this.entries[slot + 1] = this.entries[slot];
+			this.entries[slot] = new Entry(key , hash , stem);
+		}
+		
+		return stem;
+	}
+	
+	
+	
+	
+	/**
+	 * @return hits The number of the words that were found in the cache.
+	 */
+	public long getHits()
+	{
+		return this.sum(0);
+	}
+	
+	
+	
+	
+	/**
+	 * @return misses The number of the words that were not found in the cache and were stemmed.
+	 */
+	public long getMisses()
+	{
+		return this.sum(1);
+	}
+	
+	
+	
+	
+	/**
+	 * @return hitRate The part of the words that were found in the cache , from 0 to 1.
+	 */
+	public double getHitRate()
+	{
+		long hits = this.getHits();
+		long total = hits + this.getMisses();
+		
+		return total == 0 ? 0 : (double)hits / total;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the counters of the cache , like "hits=950 misses=50 hit rate=95.00%".
+	 */
+	@Override
+	public String toString()
+	{
+		return "hits=" + this.getHits() + " misses=" + this.getMisses() + " hit rate=" + String.format("%.2f%%" , 100 * this.getHitRate());
+	}
+	
+	
+	
+	
+	/**
+	 * Adds up a counter of all the stripes.
+	 *
+	 * @param counter 0 for the hits , 1 for the misses.
+	 */
+	private long sum(int counter)
+	{
+		long sum = 0;
+		
+		for(int i = counter; i < this.counters.length(); i += STRIPE_WIDTH)
+		{
+			sum += this.counters.get(i);
+		}
+		
+		return sum;
+	}
+	
+	
+	
+	
+	/**
+	 * A word and its stem. It is never modified , so it can be read by any thread once it is in the cache.
+	 */
+	private static class Entry
+	{
+		
+		/**
+		 * The chars of the word.
+		 */
+		private final char[] word;
+		
+		/**
+		 * The hash of the word.
+		 */
+		private final int hash;
+		
+		/**
+		 * The stem of the word.
+		 */
+		private final String stem;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 */
+		private Entry(char[] word , int hash , String stem)
+		{
+			this.word = word;
+			this.hash = hash;
+			this.stem = stem;
+		}
+		
+		
+		
+		
+		/**
+		 * Tells us whether the entry is for the given word.
+		 */
+		private boolean matches(char[] word , int length)
+		{
+			if(this.word.length != length) return false;
+			
+			for(int i = 0; i < length; i++)
+			{
+				if(this.word[i] != word[i]) return false;
+			}
+			
+			return true;
+		}
+	}
+}
\ No newline at end of file
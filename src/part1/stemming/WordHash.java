@@ -0,0 +1,36 @@
+package part1.stemming;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * The hash function of the hash tables of words , the StemCache and the TermDictionary.
+ * It hashes the chars of a word from a part of a buffer , so the word does not have to become a String first.
+ */
+public class WordHash
+{
+	
+	/**
+	 * The hash of the chars of a word , with its bits mixed so that the low bits can be used as a slot.
+	 * 
+	 * @param buffer The buffer that contains the word.
+	 * @param offset The position of the first char of the word in the buffer.
+	 * @param length The number of the chars of the word.
+	 * 
+	 * @return hash The hash of the word.
+	 */
+	public static int hash(char[] buffer , int offset , int length)
+	{
+		int h = 0;
+		
+		for(int i = offset; i < offset + length; i++)
+		{
+			h = 31 * h + buffer[i];
+		}
+		
+		//Spread the bits of the polynomial hash , which differ mostly in the low bits for similar words , to the whole int.
+		h *= 0x9E3779B9;
+		
+		return h ^ (h >>> 16);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package part2.benchmark;
+
+import java.io.File;
+
+import part2.bigram_search.BigramLuceneIndexer;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Compares the time that BigramLuceneIndexer needs to index the medlars collection (replicated many times)
+ * with one thread , as it used to , and with more threads that each have their own analyzer.
+ * 
+ * Usage : BigramIndexBenchmark [times] [iterations]
+ */
+public class BigramIndexBenchmark
+{
+	public static void main(String[] args)
+	{
+		int times = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		
+		try
+		{
+			File file = File.createTempFile("medlars" , ".all");
+			File cache = new File(file.getPath() + ".cache");
+			File index = new File(file.getPath() + ".index");
+			file.deleteOnExit();
+			cache.deleteOnExit();
+			
+			int docs = new CollectionReplicator("medlars/MED.ALL").replicate(times , file.getPath());
+			
+			int processors = Runtime.getRuntime().availableProcessors();
+			
+			//The serial indexer is the base of the comparison.
+			double serial = measure(file , index , 1 , iterations);
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Documents : " + docs);
+			System.out.println("1 thread : " + serial + " ms.");
+			
+			for(int threads = 2; threads <= processors; threads *= 2)
+			{
+				double parallel = measure(file , index , threads , iterations);
+				System.out.println(threads + " threads : " + parallel + " ms , speedup = " + String.format("%.2f" , serial / parallel));
+			}
+			
+			System.out.println("--------------------------------------------------");
+			
+			deleteDirectory(index);
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the average time in milliseconds that the indexer needs with the given number of threads.
+	 * The first run is used to warm up the JVM and is not counted.
+	 */
+	static double measure(File file , File index , int threads , int iterations)
+	{
+		long total = 0;
+		
+		for(int i = 0; i <= iterations; i++)
+		{
+			BigramLuceneIndexer indexer = new BigramLuceneIndexer(file.getPath() , index.getPath());
+			indexer.setThreads(threads);
+			
+			long start = System.nanoTime();
+			indexer.createIndex();
+			long end = System.nanoTime();
+			
+			if(i > 0) total += end - start;
+		}
+		
+		return (double)total / iterations / 1000000;
+	}
+	
+	
+	
+	
+	/**
+	 * Deletes a directory with all its files.
+	 */
+	static void deleteDirectory(File dir)
+	{
+		File[] files = dir.listFiles();
+		
+		if(files != null)
+		{
+			for(File f : files)
+			{
+				if(f.isDirectory()) deleteDirectory(f);
+				else f.delete();
+			}
+		}
+		
+		dir.delete();
+	}
+}
\ No newline at end of file
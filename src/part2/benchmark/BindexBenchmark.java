@@ -0,0 +1,166 @@
+package part2.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+import part2.util.BigramDictionary;
+import part2.util.LongHashSet;
+import part2.util.SimpleAnalyzer;
+import part2.util.TermDictionary;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Compares a BINDEX that is kept as a HashSet of "first_second" Strings with one that is kept as a TermDictionary
+ * and a LongHashSet of packed ids , the way BigramDictionary keeps it. The real BINDEX is small , so a BINDEX
+ * with the given number of random bigrams of the words of the medlars collection is built , and the heap of each one
+ * is measured. Then every pair of adjacent words of the collection is looked up in both , and the lookups per second are reported.
+ *
+ * Usage : BindexBenchmark [bigrams] [iterations]
+ */
+public class BindexBenchmark
+{
+	public static void main(String[] args)
+	{
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		
+		try
+		{
+			BigramDictionary dictionary = BigramDictionary.getDefault();
+			System.out.println("BINDEX : " + dictionary.getBindexSize() + " bigrams , " + dictionary.bindexRamBytesUsed() + " bytes.");
+			
+			//The words of every document as Strings and as chars , and all the different words.
+			SimpleAnalyzer analyzer = new SimpleAnalyzer(dictionary);
+			List<String[]> documents = new ArrayList<String[]>();
+			List<char[][]> charDocuments = new ArrayList<char[][]>();
+			Set<String> vocabulary = new HashSet<String>();
+			
+			for(MedlarsDocument doc : new MedlarsDocumentReader("medlars/MED.ALL").getDocuments())
+			{
+				List<String> words = analyzer.wordsOfText(doc.getText());
+				documents.add(words.toArray(new String[words.size()]));
+				
+				char[][] chars = new char[words.size()][];
+				for(int w = 0; w < chars.length; w++) chars[w] = words.get(w).toCharArray();
+				charDocuments.add(chars);
+				vocabulary.addAll(words);
+			}
+			
+			String[] words = vocabulary.toArray(new String[vocabulary.size()]);
+			Random random = new Random(42);
+			
+			long empty = usedMemory();
+			
+			Set<String> strings = new HashSet<String>();
+			while(strings.size() < size)
+			{
+				strings.add(words[random.nextInt(words.length)] + "_" + words[random.nextInt(words.length)]);
+			}
+			
+			long withStrings = usedMemory();
+			
+			TermDictionary terms = new TermDictionary();
+			LongHashSet packed = new LongHashSet();
+			for(String bigram : strings)
+			{
+				int separator = bigram.indexOf('_');
+				long first = terms.add(bigram.substring(0 , separator));
+				long second = terms.add(bigram.substring(separator + 1));
+				packed.add((first << 32) | second);
+			}
+			
+			long withPacked = usedMemory();
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Random BINDEX of " + size + " bigrams over " + words.length + " words.");
+			System.out.println("HashSet<String> : " + (withStrings - empty) / 1024 + " KB.");
+			System.out.println("TermDictionary + LongHashSet : " + (withPacked - withStrings) / 1024 + " KB (estimated " + (terms.ramBytesUsed() + packed.ramBytesUsed()) / 1024 + " KB).");
+			
+			long stringTime = 0 , packedTime = 0 , stringHits = 0 , packedHits = 0;
+			
+			//The first iteration warms up the JVM and is not counted.
+			for(int i = 0; i <= iterations; i++)
+			{
+				long start = System.nanoTime();
+				long hits = 0;
+				
+				for(String[] document : documents)
+				{
+					for(int w = 0; w < document.length - 1; w++)
+					{
+						if(strings.contains(document[w] + "_" + document[w + 1])) hits++;
+					}
+				}
+				
+				if(i > 0)
+				{
+					stringTime += System.nanoTime() - start;
+					stringHits += hits;
+				}
+				
+				start = System.nanoTime();
+				hits = 0;
+				
+				for(char[][] document : charDocuments)
+				{
+					//The id of every word is found once , like SimpleAnalyzer does when it reads the word.
+					long previous = -1;
+					
+					for(char[] word : document)
+					{
+						long current = terms.getId(word , 0 , word.length);
+						
+						if(previous >= 0 && current >= 0 && packed.contains((previous << 32) | current)) hits++;
+						
+						previous = current;
+					}
+				}
+				
+				if(i > 0)
+				{
+					packedTime += System.nanoTime() - start;
+					packedHits += hits;
+				}
+			}
+			
+			long lookups = 0;
+			for(String[] document : documents) lookups += Math.max(document.length - 1 , 0);
+			lookups *= iterations;
+			
+			System.out.println("HashSet<String> : " + String.format("%.0f" , lookups / (stringTime / 1000000000.0)) + " lookups/s.");
+			System.out.println("TermDictionary + LongHashSet : " + String.format("%.0f" , lookups / (packedTime / 1000000000.0)) + " lookups/s.");
+			System.out.println("Same hits : " + (stringHits == packedHits) + " (" + stringHits / iterations + " per iteration).");
+			System.out.println("--------------------------------------------------");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the heap that is used after a garbage collection.
+	 */
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		
+		for(int i = 0; i < 3; i++)
+		{
+			System.gc();
+		}
+		
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package part2.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class creates larger versions of a medlars collection , by writing all of its documents
+ * many times in a new file. Every copy gets new ids , so that all the ids of the new file are unique.
+ * It is used by the benchmarks to measure how our code scales with the size of the collection.
+ */
+public class CollectionReplicator
+{
+	
+	/**
+	 * The path of the original collection.
+	 */
+	private String docsFile;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param docsPath The path of the original medlars collection file.
+	 */
+	public CollectionReplicator(String docsPath)
+	{
+		this.docsFile = docsPath;
+	}
+	
+	
+	
+	
+	/**
+	 * Writes the documents of the collection the given number of times to a new file.
+	 * The documents of copy c get the ids (c * maxID + id) , where maxID is the largest id of the collection.
+	 * 
+	 * @param times How many times the collection will be written.
+	 * @param outputPath The path of the new file.
+	 * 
+	 * @return The number of documents that were written.
+	 */
+	public int replicate(int times , String outputPath)
+	{
+		int written = 0;
+		
+		try
+		{
+			MedlarsDocumentReader reader = new MedlarsDocumentReader(this.docsFile);
+			
+			//Find the largest id , so that the ids of different copies do not overlap.
+			int maxID = 0;
+			for(MedlarsDocument doc : reader)
+			{
+				maxID = Math.max(maxID , doc.getId());
+			}
+			
+			BufferedWriter bw = new BufferedWriter(new FileWriter(new File(outputPath)));
+			
+			for(int c = 0; c < times; c++)
+			{
+				for(MedlarsDocument doc : reader)
+				{
+					bw.write(".I " + (c * maxID + doc.getId()) + "\n.W\n");
+					bw.write(doc.getText());
+					written++;
+				}
+			}
+			
+			bw.close();
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+		
+		return written;
+	}
+}
\ No newline at end of file
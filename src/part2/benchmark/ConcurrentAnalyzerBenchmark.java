@@ -0,0 +1,191 @@
+package part2.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import part1.preprocessing.DocumentPreProcessing;
+import part1.preprocessing.PreProcessingFactory;
+import part1.stemming.StemCache;
+import part1.xmlparsing.Bigram;
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+import part2.util.BigramDictionary;
+import part2.util.SimpleAnalyzer;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Analyzes the medlars documents from many threads at the same time , with a SimpleAnalyzer of every thread that shares
+ * the dictionary and the stem cache with the others , and with the objects of a PreProcessingFactory , and checks that every thread finds exactly the words and the bigrams that one thread
+ * finds alone. The words of a document are compared with a checksum , and for the DocumentPreProcessing every document
+ * is turned into anchored elements "[[first second]]" of its words. The words per second and the wrong documents
+ * are reported for 1 , 2 , 4 ... threads.
+ *
+ * Usage : ConcurrentAnalyzerBenchmark [max threads] [iterations]
+ */
+public class ConcurrentAnalyzerBenchmark
+{
+	public static void main(String[] args)
+	{
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		try
+		{
+			final List<String> texts = new ArrayList<String>();
+			final List<String> anchored = new ArrayList<String>();
+			
+			for(MedlarsDocument doc : new MedlarsDocumentReader("medlars/MED.ALL").getDocuments())
+			{
+				texts.add(doc.getText());
+				anchored.add(anchor(doc.getText()));
+			}
+			
+			//The expected results , from analyzers that do not share anything.
+			final long[] checksums = new long[texts.size()];
+			final List<Set<Bigram>> bigrams = new ArrayList<Set<Bigram>>();
+			
+			SimpleAnalyzer single = new SimpleAnalyzer(BigramDictionary.getDefault() , new StemCache(StemCache.DEFAULT_SIZE));
+			DocumentPreProcessing singlePreProcessing = new DocumentPreProcessing();
+			long words = 0;
+			
+			for(int d = 0; d < texts.size(); d++)
+			{
+				checksums[d] = checksum(single , texts.get(d));
+				bigrams.add(new HashSet<Bigram>(singlePreProcessing.getBigrams(anchored.get(d))));
+				
+				single.reset(texts.get(d));
+				while(single.next()) words++;
+			}
+			
+			BigramDictionary dictionary = BigramDictionary.getDefault();
+			StemCache cache = StemCache.getDefault();
+			PreProcessingFactory preprocessors = PreProcessingFactory.getDefault();
+			
+			//The first run warms up the JVM and is not counted.
+			analyze(1 , iterations , texts , anchored , checksums , bigrams , dictionary , cache , preprocessors);
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Documents : " + texts.size() + " , words : " + words + " , iterations : " + iterations);
+			
+			for(int threads = 1; threads <= maxThreads; threads *= 2)
+			{
+				long start = System.nanoTime();
+				long wrong = analyze(threads , iterations , texts , anchored , checksums , bigrams , dictionary , cache , preprocessors);
+				long time = System.nanoTime() - start;
+				
+				double perSecond = (double)words * iterations * threads / (time / 1000000000.0);
+				
+				System.out.println(threads + " thread(s) : " + String.format("%.0f" , perSecond) + " words/s , wrong documents : " + wrong);
+			}
+			
+			System.out.println("Stem cache : " + cache + ".");
+			System.out.println("--------------------------------------------------");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Analyzes all the documents with the given number of threads , each one with its own SimpleAnalyzer over the shared
+	 * dictionary and stem cache and with the DocumentPreProcessing that the factory gives to it ,
+	 * and returns the number of the documents that were not analyzed the way they are analyzed by one thread.
+	 */
+	private static long analyze(int threads , final int iterations , final List<String> texts , final List<String> anchored , final long[] checksums ,
+			final List<Set<Bigram>> bigrams , final BigramDictionary dictionary , final StemCache cache , final PreProcessingFactory preprocessors) throws InterruptedException
+	{
+		final AtomicLong wrong = new AtomicLong();
+		Thread[] workers = new Thread[threads];
+		
+		for(int t = 0; t < threads; t++)
+		{
+			//Every thread starts from a different document , so that the threads analyze different texts at the same time.
+			final int first = t * texts.size() / threads;
+			
+			workers[t] = new Thread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					SimpleAnalyzer analyzer = new SimpleAnalyzer(dictionary , cache);
+					DocumentPreProcessing preprocessing = preprocessors.get();
+					
+					for(int i = 0; i < iterations; i++)
+					{
+						for(int n = 0; n < texts.size(); n++)
+						{
+							int d = (first + n) % texts.size();
+							
+							if(checksum(analyzer , texts.get(d)) != checksums[d]) wrong.incrementAndGet();
+							if(!preprocessing.getBigrams(anchored.get(d)).equals(bigrams.get(d))) wrong.incrementAndGet();
+						}
+					}
+				}
+			} , "analyzer-" + t);
+		}
+		
+		for(Thread worker : workers) worker.start();
+		for(Thread worker : workers) worker.join();
+		
+		return wrong.get();
+	}
+	
+	
+	
+	
+	/**
+	 * Returns a checksum of the words of a text , in their order.
+	 */
+	private static long checksum(SimpleAnalyzer analyzer , String text)
+	{
+		long checksum = 0;
+		
+		analyzer.reset(text);
+		
+		while(analyzer.next())
+		{
+			char[] word = analyzer.getWordBuffer();
+			
+			for(int c = 0; c < analyzer.getWordLength(); c++)
+			{
+				checksum = 31 * checksum + word[c];
+			}
+			
+			checksum = 31 * checksum + ' ';
+		}
+		
+		return checksum;
+	}
+	
+	
+	
+	
+	/**
+	 * Turns every two words of a text into an anchored element , like " [[first second]]".
+	 */
+	private static String anchor(String text)
+	{
+		StringBuilder sb = new StringBuilder();
+		StringTokenizer tokenizer = new StringTokenizer(text);
+		
+		while(tokenizer.hasMoreTokens())
+		{
+			sb.append(" [[").append(tokenizer.nextToken());
+			if(tokenizer.hasMoreTokens()) sb.append(' ').append(tokenizer.nextToken());
+			sb.append("]]");
+		}
+		
+		return sb.toString();
+	}
+}
\ No newline at end of file
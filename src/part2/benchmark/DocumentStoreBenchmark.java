@@ -0,0 +1,78 @@
+package part2.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import part2.medlars.CorpusCache;
+import part2.medlars.DocumentStore;
+import part2.medlars.MedlarsDocument;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Compares the heap that a list of MedlarsDocument objects and a DocumentStore need to keep
+ * the medlars collection replicated many times.
+ * 
+ * Usage : DocumentStoreBenchmark [times]
+ */
+public class DocumentStoreBenchmark
+{
+	public static void main(String[] args)
+	{
+		int times = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		
+		try
+		{
+			File file = File.createTempFile("medlars" , ".all");
+			File cache = new File(file.getPath() + ".cache");
+			file.deleteOnExit();
+			cache.deleteOnExit();
+			
+			new CollectionReplicator("medlars/MED.ALL").replicate(times , file.getPath());
+			CorpusCache reader = new CorpusCache(file.getPath() , cache.getPath());
+			
+			long empty = usedMemory();
+			
+			List<MedlarsDocument> docs = new ArrayList<MedlarsDocument>();
+			for(MedlarsDocument doc : reader)
+			{
+				docs.add(doc);
+			}
+			
+			long withObjects = usedMemory();
+			System.out.println("List of " + docs.size() + " MedlarsDocument objects : " + (withObjects - empty) / 1024 + " KB.");
+			
+			docs = null;
+			empty = usedMemory();
+			
+			DocumentStore store = DocumentStore.load(reader);
+			long withStore = usedMemory();
+			System.out.println("DocumentStore with " + store.size() + " documents : " + (withStore - empty) / 1024 + " KB (estimated " + store.ramBytesUsed() / 1024 + " KB).");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the heap that is used after a garbage collection.
+	 */
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		
+		for(int i = 0; i < 3; i++)
+		{
+			System.gc();
+		}
+		
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
\ No newline at end of file
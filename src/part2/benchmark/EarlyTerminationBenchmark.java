@@ -0,0 +1,215 @@
+package part2.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.Version;
+
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+import part2.simple_search.SimpleLuceneIndexer;
+import part2.util.EarlyTermination;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Indexes the medlars collection (replicated many times) sorted by the length of the documents , and compares
+ * the search of the queries with EarlyTermination to the search that scores every document that matches.
+ * Prints the latency of both , the part of the matching documents that EarlyTermination collected and
+ * how many queries got the same top k documents in the same order. This is done for the queries of MED.QRY
+ * and for single term queries of the most common terms of the collection.
+ *
+ * Usage : EarlyTerminationBenchmark [times] [iterations] [k]
+ */
+public class EarlyTerminationBenchmark
+{
+	public static void main(String[] args)
+	{
+		int times = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int k = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+		
+		try
+		{
+			File file = File.createTempFile("medlars" , ".all");
+			File cache = new File(file.getPath() + ".cache");
+			File index = new File(file.getPath() + ".index");
+			file.deleteOnExit();
+			cache.deleteOnExit();
+			
+			int docs = new CollectionReplicator("medlars/MED.ALL").replicate(times , file.getPath());
+			
+			SimpleLuceneIndexer indexer = new SimpleLuceneIndexer(file.getPath() , index.getPath());
+			indexer.setSortByLength(true);
+			indexer.createIndex();
+			
+			IndexReader indexReader = DirectoryReader.open(FSDirectory.open(index));
+			IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+			QueryParser parser = new QueryParser(Version.LUCENE_4_9 , "text" , new EnglishAnalyzer(Version.LUCENE_4_9));
+			
+			List<MedlarsDocument> texts = new MedlarsDocumentReader("medlars/MED.QRY").getDocuments();
+			Query[] queries = new Query[texts.size()];
+			
+			for(int q = 0; q < queries.length; q++)
+			{
+				queries[q] = parser.parse(texts.get(q).getText());
+			}
+			
+			System.out.println("Documents : " + docs + " , top " + k);
+			
+			measure("MED.QRY" , indexSearcher , queries , iterations , k);
+			measure("Common terms" , indexSearcher , commonTerms(indexReader , queries.length) , iterations , k);
+			
+			indexReader.close();
+			BigramIndexBenchmark.deleteDirectory(index);
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Searches the queries with and without EarlyTermination and prints the results.
+	 */
+	private static void measure(String name , IndexSearcher indexSearcher , Query[] queries , int iterations , int k) throws Exception
+	{
+		EarlyTermination earlyTermination = new EarlyTermination("text");
+		
+		long[] exhaustive = new long[iterations * queries.length];
+		long[] early = new long[iterations * queries.length];
+		long matched = 0 , collected = 0 , terminated = 0;
+		int same = 0;
+		
+		//The first iteration warms up the JVM and is not counted.
+		for(int i = 0; i <= iterations; i++)
+		{
+			//The bounds of the terms stay known after the warm up , only the counters of the measured passes are kept.
+			if(i == 1)
+			{
+				collected = earlyTermination.getCollected();
+				terminated = earlyTermination.getTerminated();
+			}
+			
+			for(int q = 0; q < queries.length; q++)
+			{
+				long start = System.nanoTime();
+				TopDocs all = indexSearcher.search(queries[q] , k);
+				long middle = System.nanoTime();
+				TopDocs top = earlyTermination.search(indexSearcher , queries[q] , k);
+				long end = System.nanoTime();
+				
+				if(i == 0)
+				{
+					matched += all.totalHits;
+					if(sameDocuments(all , top)) same++;
+				}
+				
+				else
+				{
+					exhaustive[(i - 1) * queries.length + q] = middle - start;
+					early[(i - 1) * queries.length + q] = end - middle;
+				}
+			}
+		}
+		
+		System.out.println("--------------------------------------------------");
+		System.out.println(name + " : " + queries.length + " queries.");
+		System.out.println("Same top " + k + " : " + same + " of " + queries.length + " queries.");
+		System.out.println("Collected : " + String.format("%.1f" , 100.0 * (earlyTermination.getCollected() - collected) / iterations / matched) + "% of the matching documents , "
+				+ (earlyTermination.getTerminated() - terminated) / iterations + " segments left early per pass.");
+		print("Exhaustive" , exhaustive);
+		print("Early termination" , early);
+		System.out.println("--------------------------------------------------");
+	}
+	
+	
+	
+	
+	/**
+	 * Returns a query for every one of the terms that are found in the most documents.
+	 */
+	private static Query[] commonTerms(IndexReader indexReader , int n) throws Exception
+	{
+		//The document frequency is in the high bits and the number of the term in the low bits.
+		List<BytesRef> terms = new ArrayList<BytesRef>();
+		List<Long> keys = new ArrayList<Long>();
+		
+		TermsEnum termsEnum = MultiFields.getTerms(indexReader , "text").iterator(null);
+		BytesRef term;
+		
+		while((term = termsEnum.next()) != null)
+		{
+			keys.add(((long)termsEnum.docFreq() << 32) | terms.size());
+			terms.add(BytesRef.deepCopyOf(term));
+		}
+		
+		Collections.sort(keys , Collections.reverseOrder());
+		
+		Query[] queries = new Query[Math.min(n , keys.size())];
+		
+		for(int i = 0; i < queries.length; i++)
+		{
+			queries[i] = new TermQuery(new Term("text" , terms.get((int)(long)keys.get(i))));
+		}
+		
+		return queries;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns true if two searches found the same documents in the same order.
+	 */
+	private static boolean sameDocuments(TopDocs a , TopDocs b)
+	{
+		if(a.scoreDocs.length != b.scoreDocs.length) return false;
+		
+		for(int i = 0; i < a.scoreDocs.length; i++)
+		{
+			if(a.scoreDocs[i].doc != b.scoreDocs[i].doc) return false;
+		}
+		
+		return true;
+	}
+	
+	
+	
+	
+	/**
+	 * Prints the average , the median and the 99th percentile of the latencies.
+	 */
+	private static void print(String name , long[] latencies)
+	{
+		long total = 0;
+		for(long latency : latencies) total += latency;
+		
+		Arrays.sort(latencies);
+		
+		System.out.println(name + " : average " + String.format("%.1f" , (double)total / latencies.length / 1000) + " us , p50 "
+				+ String.format("%.1f" , latencies[latencies.length / 2] / 1000.0) + " us , p99 "
+				+ String.format("%.1f" , latencies[(int)(latencies.length * 0.99)] / 1000.0) + " us.");
+	}
+}
\ No newline at end of file
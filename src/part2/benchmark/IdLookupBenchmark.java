@@ -0,0 +1,109 @@
+package part2.benchmark;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+import part2.util.MedlarsIds;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Compares the time that is needed to find the medlars ids of the top hits of every query , by loading the stored
+ * "id" field of every hit , as the searchers used to , and by reading the "id" doc values with MedlarsIds.
+ * The index must have been created by SimpleSearch.
+ *
+ * Usage : IdLookupBenchmark [iterations] [k]
+ */
+public class IdLookupBenchmark
+{
+	public static void main(String[] args)
+	{
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int k = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		
+		try
+		{
+			IndexReader indexReader = DirectoryReader.open(FSDirectory.open(new File("index/index_simple")));
+			IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+			QueryParser parser = new QueryParser(Version.LUCENE_4_9 , "text" , new EnglishAnalyzer(Version.LUCENE_4_9));
+			
+			//The hits of all the queries.
+			List<MedlarsDocument> queries = new MedlarsDocumentReader("medlars/MED.QRY").getDocuments();
+			ScoreDoc[][] hits = new ScoreDoc[queries.size()][];
+			
+			for(int q = 0; q < hits.length; q++)
+			{
+				hits[q] = indexSearcher.search(parser.parse(queries.get(q).getText()) , k).scoreDocs;
+			}
+			
+			long stored = 0;
+			long docValues = 0;
+			long checksum = 0;
+			
+			//The first iteration warms up the JVM and is not counted.
+			for(int i = 0; i <= iterations; i++)
+			{
+				long start = System.nanoTime();
+				
+				for(ScoreDoc[] queryHits : hits)
+				{
+					for(ScoreDoc hit : queryHits)
+					{
+						checksum += Integer.parseInt(indexSearcher.doc(hit.doc).get("id"));
+					}
+				}
+				
+				long middle = System.nanoTime();
+				
+				for(ScoreDoc[] queryHits : hits)
+				{
+					MedlarsIds ids = new MedlarsIds(indexReader);
+					
+					for(ScoreDoc hit : queryHits)
+					{
+						checksum -= ids.get(hit.doc);
+					}
+				}
+				
+				long end = System.nanoTime();
+				
+				if(i > 0)
+				{
+					stored += middle - start;
+					docValues += end - middle;
+				}
+			}
+			
+			indexReader.close();
+			
+			//Both ways must find the same ids.
+			if(checksum != 0) System.out.println("The ids are different!");
+			
+			double n = (double)iterations * hits.length;
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Queries : " + hits.length + " , top " + k + " hits each.");
+			System.out.println("Stored fields : " + String.format("%.1f" , stored / n / 1000) + " us per query.");
+			System.out.println("Doc values : " + String.format("%.1f" , docValues / n / 1000) + " us per query.");
+			System.out.println("Speedup : " + String.format("%.1f" , (double)stored / docValues));
+			System.out.println("--------------------------------------------------");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
\ No newline at end of file
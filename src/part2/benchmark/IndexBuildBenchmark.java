@@ -0,0 +1,265 @@
+package part2.benchmark;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import part2.bigram_search.BigramLuceneIndexer;
+import part2.simple_search.SimpleLuceneIndexer;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Benchmarks the whole index build of SimpleLuceneIndexer and BigramLuceneIndexer on the medlars
+ * collection replicated 1 , 10 and 100 times. Like a JMH benchmark , every configuration is run a number
+ * of warm up iterations that are not counted , followed by the measured iterations.
+ * 
+ * For every configuration it reports the throughput (documents per second) , the bytes that the indexing
+ * threads allocated (per second and per document) , the garbage collections and the size of the final index.
+ * 
+ * Usage : IndexBuildBenchmark [scales] [warmup iterations] [measured iterations] [threads]
+ * e.g. IndexBuildBenchmark 1,10,100 1 3 1
+ */
+public class IndexBuildBenchmark
+{
+	public static void main(String[] args)
+	{
+		String[] scales = (args.length > 0 ? args[0] : "1,10,100").split(",");
+		int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+		
+		List<String> table = new ArrayList<String>();
+		
+		try
+		{
+			for(String scale : scales)
+			{
+				int times = Integer.parseInt(scale.trim());
+				
+				File file = File.createTempFile("medlars" + times + "x" , ".all");
+				File cache = new File(file.getPath() + ".cache");
+				File index = new File(file.getPath() + ".index");
+				
+				int docs = new CollectionReplicator("medlars/MED.ALL").replicate(times , file.getPath());
+				
+				for(String indexer : new String[]{"simple" , "bigrams"})
+				{
+					Result result = new Result();
+					
+					for(int i = 0; i < warmup + iterations; i++)
+					{
+						BigramIndexBenchmark.deleteDirectory(index);
+						
+						Result run = run(indexer , file , index , threads);
+						
+						if(i >= warmup) result.add(run);
+					}
+					
+					table.add(result.format(indexer , times , docs , iterations , directorySize(index)));
+				}
+				
+				BigramIndexBenchmark.deleteDirectory(index);
+				cache.delete();
+				file.delete();
+			}
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+		
+		System.out.println("----------------------------------------------------------------------------------------------------------------");
+		System.out.println(String.format("%-8s %6s %8s %18s %12s %12s %8s %8s %10s" , "indexer" , "scale" , "docs" , "docs/sec" , "alloc MB/s" , "alloc B/doc" , "gc count" , "gc ms" , "index MB"));
+		
+		for(String line : table)
+		{
+			System.out.println(line);
+		}
+		
+		System.out.println("----------------------------------------------------------------------------------------------------------------");
+	}
+	
+	
+	
+	
+	/**
+	 * Builds the index once and measures it. The garbage of the previous iteration is collected before the clock
+	 * and the GC counters start , so that the measured window contains only the collections of this build.
+	 * The indexers read the collection while they index it , so the reading is measured too.
+	 */
+	private static Result run(String indexer , File file , File index , int threads)
+	{
+		System.gc();
+		
+		long gcCount = gcCount();
+		long gcTime = gcTime();
+		long allocated;
+		
+		long start = System.nanoTime();
+		
+		if(indexer.equals("simple"))
+		{
+			SimpleLuceneIndexer simple = new SimpleLuceneIndexer(file.getPath() , index.getPath());
+			simple.setThreads(threads);
+			simple.createIndex();
+			allocated = simple.getAllocatedBytes();
+		}
+		
+		else
+		{
+			BigramLuceneIndexer bigrams = new BigramLuceneIndexer(file.getPath() , index.getPath());
+			bigrams.setThreads(threads);
+			bigrams.createIndex();
+			allocated = bigrams.getAllocatedBytes();
+		}
+		
+		long end = System.nanoTime();
+		
+		Result result = new Result();
+		result.nanos.add(end - start);
+		result.allocated = allocated;
+		result.gcCount = gcCount() - gcCount;
+		result.gcTime = gcTime() - gcTime;
+		
+		return result;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the total number of garbage collections so far.
+	 */
+	private static long gcCount()
+	{
+		long count = 0;
+		
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+		{
+			count += Math.max(0 , gc.getCollectionCount());
+		}
+		
+		return count;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the total time in milliseconds that was spent in garbage collections so far.
+	 */
+	private static long gcTime()
+	{
+		long time = 0;
+		
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+		{
+			time += Math.max(0 , gc.getCollectionTime());
+		}
+		
+		return time;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the total size of the files of a directory.
+	 */
+	private static long directorySize(File dir)
+	{
+		long size = 0;
+		
+		File[] files = dir.listFiles();
+		
+		if(files != null)
+		{
+			for(File f : files)
+			{
+				size += f.isDirectory() ? directorySize(f) : f.length();
+			}
+		}
+		
+		return size;
+	}
+	
+	
+	
+	
+	/**
+	 * The measurements of one or more iterations.
+	 */
+	private static class Result
+	{
+		
+		/**
+		 * The duration of every iteration in nanoseconds.
+		 */
+		private List<Long> nanos = new ArrayList<Long>();
+		
+		/**
+		 * The bytes that the indexing threads allocated , or -1 if they could not be measured.
+		 */
+		private long allocated = 0;
+		
+		/**
+		 * The number of garbage collections.
+		 */
+		private long gcCount = 0;
+		
+		/**
+		 * The time spent in garbage collections in milliseconds.
+		 */
+		private long gcTime = 0;
+		
+		
+		
+		
+		/**
+		 * Adds the measurements of an iteration.
+		 */
+		void add(Result run)
+		{
+			this.nanos.addAll(run.nanos);
+			this.allocated = this.allocated < 0 || run.allocated < 0 ? -1 : this.allocated + run.allocated;
+			this.gcCount += run.gcCount;
+			this.gcTime += run.gcTime;
+		}
+		
+		
+		
+		
+		/**
+		 * Formats the average measurements as a line of the table.
+		 */
+		String format(String indexer , int times , int docs , int iterations , long indexSize)
+		{
+			//The mean and the standard deviation of the throughput.
+			double sum = 0 , squares = 0;
+			long totalNanos = 0;
+			
+			for(long n : this.nanos)
+			{
+				double throughput = docs / (n / 1e9);
+				sum += throughput;
+				squares += throughput * throughput;
+				totalNanos += n;
+			}
+			
+			double mean = sum / this.nanos.size();
+			double deviation = Math.sqrt(Math.max(0 , squares / this.nanos.size() - mean * mean));
+			
+			String allocRate = this.allocated < 0 ? "n/a" : String.format("%.1f" , this.allocated / (totalNanos / 1e9) / (1 << 20));
+			String allocPerDoc = this.allocated < 0 ? "n/a" : String.valueOf(this.allocated / ((long)docs * iterations));
+			
+			return String.format("%-8s %5dx %8d %18s %12s %12s %8.1f %8.1f %10.2f" , indexer , times , docs ,
+					String.format("%.0f +- %.0f" , mean , deviation) , allocRate , allocPerDoc ,
+					(double)this.gcCount / iterations , (double)this.gcTime / iterations , indexSize / (double)(1 << 20));
+		}
+	}
+}
\ No newline at end of file
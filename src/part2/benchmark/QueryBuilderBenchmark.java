@@ -0,0 +1,130 @@
+package part2.benchmark;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+
+import part2.bigram_search.BigramQueryBuilder;
+import part2.bigram_search.BindexAnalyzer;
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+import part2.util.SimpleAnalyzer;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Compares the time that is needed to make the queries of the bigrams index , by finding the bigrams with a SimpleAnalyzer ,
+ * adding them to the text and parsing it with a QueryParser (two passes over the text) , as BigramLuceneSearcher did before
+ * the BindexAnalyzer , and by building them with a BigramQueryBuilder and a BindexAnalyzer (one pass) , as it does now.
+ * The time of making a query and the time of making it and searching with it are reported in microseconds per query.
+ * The index must have been created by BigramSearch.
+ *
+ * Usage : QueryBuilderBenchmark [iterations] [k]
+ */
+public class QueryBuilderBenchmark
+{
+	public static void main(String[] args)
+	{
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int k = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		
+		try
+		{
+			IndexReader indexReader = DirectoryReader.open(FSDirectory.open(new File("index/index_bigrams")));
+			IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+			
+			SimpleAnalyzer simpleAnalyzer = new SimpleAnalyzer();
+			QueryParser parser = new QueryParser(Version.LUCENE_4_9 , "text" , new EnglishAnalyzer(Version.LUCENE_4_9));
+			
+			Analyzer analyzer = new BindexAnalyzer();
+			BigramQueryBuilder builder = new BigramQueryBuilder(analyzer , "text");
+			
+			List<MedlarsDocument> queries = new MedlarsDocumentReader("medlars/MED.QRY").getDocuments();
+			
+			long parsed = 0 , built = 0 , parsedSearch = 0 , builtSearch = 0;
+			int clauses = 0;
+			
+			//The first iteration warms up the JVM and is not counted.
+			for(int i = 0; i <= iterations; i++)
+			{
+				for(MedlarsDocument doc : queries)
+				{
+					long start = System.nanoTime();
+					Query query = parser.parse(boostQuery(simpleAnalyzer , doc.getText()));
+					long middle = System.nanoTime();
+					indexSearcher.search(query , k);
+					long end = System.nanoTime();
+					
+					if(i > 0)
+					{
+						parsed += middle - start;
+						parsedSearch += end - start;
+					}
+					
+					start = System.nanoTime();
+					query = builder.build(doc.getText());
+					middle = System.nanoTime();
+					indexSearcher.search(query , k);
+					end = System.nanoTime();
+					
+					if(i > 0)
+					{
+						built += middle - start;
+						builtSearch += end - start;
+					}
+					
+					if(i == 0) clauses += query.toString().split(" ").length;
+				}
+			}
+			
+			indexReader.close();
+			
+			double n = (double)iterations * queries.size() * 1000;
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Queries : " + queries.size() + " , " + clauses / queries.size() + " clauses on average.");
+			System.out.println("SimpleAnalyzer + QueryParser : " + String.format("%.1f" , parsed / n) + " us to make , " + String.format("%.1f" , parsedSearch / n) + " us with the search.");
+			System.out.println("BigramQueryBuilder : " + String.format("%.1f" , built / n) + " us to make , " + String.format("%.1f" , builtSearch / n) + " us with the search.");
+			System.out.println("--------------------------------------------------");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Adds to the end of a text its bigrams that are contained in the Bindex , glued together , so that a QueryParser
+	 * with an EnglishAnalyzer finds the same terms as a BindexAnalyzer. This is how the bigrams were found before the BindexAnalyzer.
+	 */
+	private static String boostQuery(SimpleAnalyzer simpleAnalyzer , String text)
+	{
+		StringBuilder newQuery = new StringBuilder(text).append(' ');
+		
+		simpleAnalyzer.reset(text);
+		
+		while(simpleAnalyzer.next())
+		{
+			if(simpleAnalyzer.isBigramInBindex())
+			{
+				simpleAnalyzer.appendGluedBigram(newQuery.append(' '));
+			}
+		}
+		
+		return newQuery.toString();
+	}
+}
\ No newline at end of file
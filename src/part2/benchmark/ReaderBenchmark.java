@@ -0,0 +1,79 @@
+package part2.benchmark;
+
+import java.io.File;
+import java.util.List;
+
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+import part2.medlars.ParallelMedlarsDocumentReader;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Compares the time that MedlarsDocumentReader and ParallelMedlarsDocumentReader need to parse
+ * a collection that is the medlars collection replicated many times.
+ * 
+ * Usage : ReaderBenchmark [times] [iterations]
+ */
+public class ReaderBenchmark
+{
+	public static void main(String[] args)
+	{
+		int times = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		try
+		{
+			File file = File.createTempFile("medlars" , ".all");
+			file.deleteOnExit();
+			
+			int docs = new CollectionReplicator("medlars/MED.ALL").replicate(times , file.getPath());
+			System.out.println("Collection : " + docs + " documents , " + file.length() / 1024 + " KB.\n");
+			
+			//The time of the serial reader is the base of the comparison.
+			double serial = measure(new MedlarsDocumentReader(file.getPath()) , null , iterations);
+			System.out.println("MedlarsDocumentReader : " + serial + " ms.");
+			
+			int processors = Runtime.getRuntime().availableProcessors();
+			
+			for(int threads = 1; threads <= processors; threads *= 2)
+			{
+				double parallel = measure(null , new ParallelMedlarsDocumentReader(file.getPath() , threads) , iterations);
+				System.out.println("ParallelMedlarsDocumentReader , " + threads + " thread(s) : " + parallel + " ms , speedup = " + String.format("%.2f" , serial / parallel));
+			}
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the average time in milliseconds that one of the readers needs to parse the file.
+	 * The first run of every reader is used to warm up the JVM and is not counted.
+	 */
+	private static double measure(MedlarsDocumentReader reader , ParallelMedlarsDocumentReader parallelReader , int iterations)
+	{
+		long total = 0;
+		
+		for(int i = 0; i <= iterations; i++)
+		{
+			long start = System.nanoTime();
+			
+			List<MedlarsDocument> docs = reader != null ? reader.getDocuments() : parallelReader.getDocuments();
+			
+			long end = System.nanoTime();
+			
+			if(docs.isEmpty()) throw new IllegalStateException("No documents were read.");
+			
+			if(i > 0) total += end - start;
+		}
+		
+		return (double)total / iterations / 1000000;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package part2.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import part2.util.BinaryRunReader;
+import part2.util.BinaryRunWriter;
+import part2.util.RunWriter;
+import part2.util.TrecRunWriter;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Writes the same run of many results in three ways : with a BufferedWriter and a String for every line , as the searchers
+ * used to , with a TrecRunWriter and with a BinaryRunWriter. Prints the time and the size of every file , checks that the
+ * TrecRunWriter wrote exactly the same bytes as the BufferedWriter , and that the binary run reads back the same results.
+ * The results are random , 1000 for every query , with scores like the ones of Lucene.
+ *
+ * Usage : RunWriterBenchmark [results] [iterations]
+ */
+public class RunWriterBenchmark
+{
+	public static void main(String[] args)
+	{
+		int results = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		try
+		{
+			//The results , sorted by score for every query.
+			int[] docs = new int[results];
+			float[] scores = new float[results];
+			Random random = new Random(42);
+			
+			for(int i = 0; i < results; i++)
+			{
+				docs[i] = 1 + random.nextInt(1033 * 100);
+				scores[i] = (float)(random.nextDouble() * random.nextDouble() * 3);
+			}
+			
+			for(int from = 0; from < results; from += 1000)
+			{
+				int to = Math.min(results , from + 1000);
+				Arrays.sort(scores , from , to);
+				
+				for(int i = from , j = to - 1; i < j; i++ , j--)
+				{
+					float score = scores[i];
+					scores[i] = scores[j];
+					scores[j] = score;
+				}
+			}
+			
+			File strings = File.createTempFile("run" , ".txt");
+			File trec = File.createTempFile("run" , ".txt");
+			File binary = File.createTempFile("run" , ".run");
+			strings.deleteOnExit();
+			trec.deleteOnExit();
+			binary.deleteOnExit();
+			
+			long stringsTime = Long.MAX_VALUE , trecTime = Long.MAX_VALUE , binaryTime = Long.MAX_VALUE;
+			
+			//The first iteration warms up the JVM and is not counted. The best time of the rest is kept.
+			for(int i = 0; i <= iterations; i++)
+			{
+				long start = System.nanoTime();
+				BufferedWriter bw = new BufferedWriter(new FileWriter(strings));
+				
+				for(int r = 0; r < results; r++)
+				{
+					bw.write(String.valueOf(1 + r / 1000) + " 0 " + String.valueOf(docs[r]) + " " +String.valueOf(r % 1000 + 1)+ " " + String.valueOf(scores[r]) + " STANDARD\n");
+				}
+				
+				bw.close();
+				long end = System.nanoTime();
+				if(i > 0) stringsTime = Math.min(stringsTime , end - start);
+				
+				start = System.nanoTime();
+				write(new TrecRunWriter(trec.getPath()) , docs , scores);
+				end = System.nanoTime();
+				if(i > 0) trecTime = Math.min(trecTime , end - start);
+				
+				start = System.nanoTime();
+				write(new BinaryRunWriter(binary.getPath()) , docs , scores);
+				end = System.nanoTime();
+				if(i > 0) binaryTime = Math.min(binaryTime , end - start);
+			}
+			
+			System.out.println("Results : " + results);
+			print("BufferedWriter" , stringsTime , strings , results);
+			print("TrecRunWriter" , trecTime , trec , results);
+			print("BinaryRunWriter" , binaryTime , binary , results);
+			
+			System.out.println("Same text : " + Arrays.equals(Files.readAllBytes(strings.toPath()) , Files.readAllBytes(trec.toPath())));
+			System.out.println("Same binary results : " + readsBack(binary , docs , scores));
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Writes the results with a RunWriter and closes it.
+	 */
+	private static void write(RunWriter runWriter , int[] docs , float[] scores) throws Exception
+	{
+		for(int r = 0; r < docs.length; r++)
+		{
+			runWriter.write(1 + r / 1000 , docs[r] , r % 1000 + 1 , scores[r]);
+		}
+		
+		runWriter.close();
+	}
+	
+	
+	
+	
+	/**
+	 * Returns true if a binary run has the same results.
+	 */
+	private static boolean readsBack(File binary , int[] docs , float[] scores) throws Exception
+	{
+		BinaryRunReader reader = new BinaryRunReader(binary.getPath());
+		int r = 0;
+		boolean same = true;
+		
+		while(reader.next())
+		{
+			same &= r < docs.length && reader.getQueryId() == 1 + r / 1000 && reader.getDocId() == docs[r]
+					&& reader.getRank() == r % 1000 + 1 && reader.getScore() == scores[r];
+			r++;
+		}
+		
+		reader.close();
+		
+		return same && r == docs.length;
+	}
+	
+	
+	
+	
+	/**
+	 * Prints the time , the throughput and the size of a run.
+	 */
+	private static void print(String name , long nanos , File file , int results)
+	{
+		System.out.println(name + " : " + String.format("%.1f" , nanos / 1000000.0) + " ms , "
+				+ String.format("%.1f" , results * 1000.0 / nanos) + " M results/s , " + file.length() / 1024 + " KB.");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package part2.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import part2.engine.ResultCache;
+import part2.engine.SearchEngine;
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Measures the latency of the queries of the medlars collection on a SearchEngine that stays open ,
+ * for the simple and the bigrams index. The indexes must have been created by SimpleSearch and BigramSearch.
+ * The first pass over the queries is cold and it is reported on its own. The latency of the warm queries
+ * is reported in microseconds , without and with the cache of the results. With the cache , every query
+ * after the cold pass is a repeated one and it is answered from the cache.
+ *
+ * Usage : SearchEngineBenchmark [iterations] [k]
+ */
+public class SearchEngineBenchmark
+{
+	public static void main(String[] args)
+	{
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		int k = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		
+		List<MedlarsDocument> queries = new MedlarsDocumentReader("medlars/MED.QRY").getDocuments();
+		
+		measure("index/index_simple" , false , queries , iterations , k , 0);
+		measure("index/index_simple" , false , queries , iterations , k , SearchEngine.DEFAULT_CACHE_SIZE);
+		measure("index/index_bigrams" , true , queries , iterations , k , 0);
+		measure("index/index_bigrams" , true , queries , iterations , k , SearchEngine.DEFAULT_CACHE_SIZE);
+	}
+	
+	
+	
+	
+	/**
+	 * Opens a SearchEngine on the given index and prints the latency of the queries.
+	 */
+	private static void measure(String indexLocation , boolean bigrams , List<MedlarsDocument> queries , int iterations , int k , int cacheSize)
+	{
+		try
+		{
+			long start = System.nanoTime();
+			SearchEngine engine = new SearchEngine(indexLocation , "text" , bigrams , 0);
+			engine.setCacheSize(cacheSize);
+			long open = System.nanoTime() - start;
+			
+			//The cold pass , that also warms up the JVM.
+			start = System.nanoTime();
+			for(MedlarsDocument query : queries)
+			{
+				engine.search(query.getText() , k);
+			}
+			long cold = System.nanoTime() - start;
+			
+			//The warm passes. The latency of every query is kept.
+			long[] latencies = new long[iterations * queries.size()];
+			int n = 0;
+			
+			for(int i = 0; i < iterations; i++)
+			{
+				for(MedlarsDocument query : queries)
+				{
+					long queryStart = System.nanoTime();
+					engine.search(query.getText() , k);
+					latencies[n++] = System.nanoTime() - queryStart;
+				}
+			}
+			
+			ResultCache cache = engine.getCache();
+			engine.close();
+			
+			Arrays.sort(latencies);
+			
+			long total = 0;
+			for(long latency : latencies) total += latency;
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Index : " + indexLocation + " , cache : " + (cache == null ? "off" : cache.toString()));
+			System.out.println("Open : " + String.format("%.2f" , open / 1e6) + " ms.");
+			System.out.println("Cold pass of " + queries.size() + " queries : " + String.format("%.2f" , cold / 1e6) + " ms.");
+			System.out.println("Warm queries : " + latencies.length);
+			System.out.println("Average : " + String.format("%.1f" , (double)total / latencies.length / 1000) + " us.");
+			System.out.println("p50 : " + String.format("%.1f" , latencies[latencies.length / 2] / 1000.0) + " us.");
+			System.out.println("p99 : " + String.format("%.1f" , latencies[(int)(latencies.length * 0.99)] / 1000.0) + " us.");
+			System.out.println("Max : " + String.format("%.1f" , latencies[latencies.length - 1] / 1000.0) + " us.");
+			System.out.println("--------------------------------------------------");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package part2.benchmark;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import part2.engine.SearchEngine;
+import part2.engine.SearchServer;
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Starts a SearchServer on localhost and sends it the queries of the medlars collection from many clients
+ * at the same time. Prints the throughput and the latency of the requests , as the clients saw it.
+ * The indexes must have been created by SimpleSearch and BigramSearch.
+ *
+ * Usage : SearchServerBenchmark [clients] [requests per client] [server threads] [index]
+ */
+public class SearchServerBenchmark
+{
+	public static void main(String[] args)
+	{
+		final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		final int requests = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4 * Runtime.getRuntime().availableProcessors();
+		String index = args.length > 3 ? args[3] : "simple";
+		
+		try
+		{
+			SearchServer server = new SearchServer(0 , threads);
+			server.addEngine("simple" , new SearchEngine("index/index_simple" , "text" , false));
+			server.addEngine("bigrams" , new SearchEngine("index/index_bigrams" , "text" , true));
+			server.start();
+			
+			//The urls of all the queries.
+			List<MedlarsDocument> queries = new MedlarsDocumentReader("medlars/MED.QRY").getDocuments();
+			final URL[] urls = new URL[queries.size()];
+			
+			for(int i = 0; i < urls.length; i++)
+			{
+				urls[i] = new URL("http://localhost:" + server.getPort() + "/search?index=" + index + "&k=100&q=" + URLEncoder.encode(queries.get(i).getText() , "UTF-8"));
+			}
+			
+			//Warm up the server and the JVM.
+			for(int i = 0; i < 5; i++)
+			{
+				for(URL url : urls) get(url);
+			}
+			
+			final long[] latencies = new long[clients * requests];
+			final AtomicInteger errors = new AtomicInteger();
+			final CountDownLatch ready = new CountDownLatch(clients);
+			final CountDownLatch go = new CountDownLatch(1);
+			final CountDownLatch done = new CountDownLatch(clients);
+			
+			for(int c = 0; c < clients; c++)
+			{
+				final int client = c;
+				
+				Thread thread = new Thread(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						try
+						{
+							ready.countDown();
+							go.await();
+							
+							for(int r = 0; r < requests; r++)
+							{
+								long start = System.nanoTime();
+								if(!get(urls[(client + r) % urls.length])) errors.incrementAndGet();
+								latencies[client * requests + r] = System.nanoTime() - start;
+							}
+						}
+						
+						catch(Exception e)
+						{
+							e.printStackTrace();
+						}
+						
+						done.countDown();
+					}
+				} , "client-" + c);
+				
+				thread.setDaemon(true);
+				thread.start();
+			}
+			
+			//All the clients start at the same time.
+			ready.await();
+			long start = System.nanoTime();
+			go.countDown();
+			done.await();
+			long elapsed = System.nanoTime() - start;
+			
+			server.stop();
+			
+			Arrays.sort(latencies);
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Index : " + index + " , clients : " + clients + " , server threads : " + threads);
+			System.out.println("Requests : " + latencies.length + " , errors : " + errors.get());
+			System.out.println("Throughput : " + String.format("%.0f" , latencies.length / (elapsed / 1e9)) + " requests/sec.");
+			System.out.println("p50 : " + String.format("%.1f" , latencies[latencies.length / 2] / 1e6) + " ms.");
+			System.out.println("p99 : " + String.format("%.1f" , latencies[(int)(latencies.length * 0.99)] / 1e6) + " ms.");
+			System.out.println("Max : " + String.format("%.1f" , latencies[latencies.length - 1] / 1e6) + " ms.");
+			System.out.println("Server time per query : " + String.format("%.1f" , server.getAverageMicros()) + " us.");
+			System.out.println("--------------------------------------------------");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Sends a request and reads all the response.
+	 *
+	 * @return ok True if the server answered with 200.
+	 */
+	private static boolean get(URL url) throws Exception
+	{
+		HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+		boolean ok = connection.getResponseCode() == 200;
+		
+		InputStream in = ok ? connection.getInputStream() : connection.getErrorStream();
+		byte[] buffer = new byte[8192];
+		while(in.read(buffer) != -1);
+		in.close();
+		
+		return ok;
+	}
+}
\ No newline at end of file
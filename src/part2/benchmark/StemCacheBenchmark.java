@@ -0,0 +1,106 @@
+package part2.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+import part1.stemming.PorterStemmer;
+import part1.stemming.StemCache;
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Compares the speed of stemming every word of the medlars documents with a PorterStemmer and with a StemCache
+ * in front of it. The words are split and cleaned the way SimpleAnalyzer does it before the timing starts ,
+ * so only the stemming is measured. The words per second and the hit rate of the cache are reported.
+ *
+ * Usage : StemCacheBenchmark [iterations] [slots]
+ */
+public class StemCacheBenchmark
+{
+	public static void main(String[] args)
+	{
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		int slots = args.length > 1 ? Integer.parseInt(args[1]) : StemCache.DEFAULT_SIZE;
+		
+		try
+		{
+			//The letters and the digits of every word.
+			List<char[]> words = new ArrayList<char[]>();
+			
+			for(MedlarsDocument doc : new MedlarsDocumentReader("medlars/MED.ALL").getDocuments())
+			{
+				StringTokenizer tokenizer = new StringTokenizer(doc.getText() , "[- :]+");
+				
+				while(tokenizer.hasMoreTokens())
+				{
+					String token = tokenizer.nextToken();
+					StringBuilder sb = new StringBuilder();
+					
+					for(int c = 0; c < token.length(); c++)
+					{
+						if(Character.isLetter(token.charAt(c)) || Character.isDigit(token.charAt(c))) sb.append(token.charAt(c));
+					}
+					
+					words.add(sb.toString().toCharArray());
+				}
+			}
+			
+			PorterStemmer stemmer = new PorterStemmer();
+			StemCache cache = new StemCache(slots);
+			
+			long plain = 0 , cached = 0 , plainLength = 0 , cachedLength = 0;
+			
+			//The first iteration warms up the JVM and is not counted.
+			for(int i = 0; i <= iterations; i++)
+			{
+				long start = System.nanoTime();
+				long length = 0;
+				
+				for(char[] word : words)
+				{
+					stemmer.add(word , word.length);
+					stemmer.stem();
+					length += stemmer.getResultLength();
+				}
+				
+				if(i > 0)
+				{
+					plain += System.nanoTime() - start;
+					plainLength += length;
+				}
+				
+				start = System.nanoTime();
+				length = 0;
+				
+				for(char[] word : words)
+				{
+					length += cache.stem(word , word.length , stemmer).length();
+				}
+				
+				if(i > 0)
+				{
+					cached += System.nanoTime() - start;
+					cachedLength += length;
+				}
+			}
+			
+			double n = (double)words.size() * iterations;
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Words : " + words.size() + " , cache slots : " + slots);
+			System.out.println("PorterStemmer : " + String.format("%.0f" , n / (plain / 1000000000.0)) + " words/s.");
+			System.out.println("StemCache : " + String.format("%.0f" , n / (cached / 1000000000.0)) + " words/s , " + cache + ".");
+			System.out.println("Same stems : " + (plainLength == cachedLength));
+			System.out.println("--------------------------------------------------");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
\ No newline at end of file
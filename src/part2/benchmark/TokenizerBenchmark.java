@@ -0,0 +1,178 @@
+package part2.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+import part1.stemming.PorterStemmer;
+import part2.medlars.DocumentStore;
+import part2.medlars.MedlarsDocumentReader;
+import part2.util.BigramDictionary;
+import part2.util.SimpleAnalyzer;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Compares the speed of finding the words and the BINDEX bigrams of the medlars documents , with a list of Strings
+ * and a String for every bigram (the way SimpleAnalyzer worked before) and with the reset()/next() API of SimpleAnalyzer ,
+ * that reuses its buffers. The words per second and the bytes allocated for every word are reported.
+ * Both ways must find the same number of words and bigrams.
+ *
+ * Usage : TokenizerBenchmark [iterations]
+ */
+public class TokenizerBenchmark
+{
+	public static void main(String[] args)
+	{
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		
+		try
+		{
+			BigramDictionary dictionary = BigramDictionary.getDefault();
+			DocumentStore store = DocumentStore.load(new MedlarsDocumentReader("medlars/MED.ALL").getDocuments());
+			
+			PorterStemmer stemmer = new PorterStemmer();
+			SimpleAnalyzer analyzer = new SimpleAnalyzer(dictionary);
+			
+			long[] strings = new long[4] , cursor = new long[4];
+			
+			//The first iteration warms up the JVM and is not counted.
+			for(int i = 0; i <= iterations; i++)
+			{
+				DocumentStore.View doc = store.view();
+				
+				long bytes = allocatedBytes();
+				long start = System.nanoTime();
+				long words = 0 , bigrams = 0;
+				
+				while(doc.next())
+				{
+					List<String> list = wordsOfText(dictionary , stemmer , doc.toString());
+					words += list.size();
+					
+					for(int w = 0; w < list.size() - 1; w++)
+					{
+						if(dictionary.isInBindex(list.get(w) + "_" + list.get(w + 1))) bigrams++;
+					}
+				}
+				
+				if(i > 0) add(strings , System.nanoTime() - start , allocatedBytes() - bytes , words , bigrams);
+				
+				doc = store.view();
+				
+				bytes = allocatedBytes();
+				start = System.nanoTime();
+				words = 0;
+				bigrams = 0;
+				
+				while(doc.next())
+				{
+					analyzer.reset(doc);
+					
+					while(analyzer.next())
+					{
+						words++;
+						if(analyzer.isBigramInBindex()) bigrams++;
+					}
+				}
+				
+				if(i > 0) add(cursor , System.nanoTime() - start , allocatedBytes() - bytes , words , bigrams);
+			}
+			
+			System.out.println("--------------------------------------------------");
+			System.out.println("Documents : " + store.size() + " , words : " + strings[2] / iterations + " , BINDEX bigrams : " + strings[3] / iterations);
+			print("Strings" , strings);
+			print("reset()/next()" , cursor);
+			System.out.println("Same words and bigrams : " + (strings[2] == cursor[2] && strings[3] == cursor[3]));
+			System.out.println("--------------------------------------------------");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Adds the time , the allocated bytes , the words and the bigrams of an iteration to the totals.
+	 */
+	private static void add(long[] totals , long nanos , long bytes , long words , long bigrams)
+	{
+		totals[0] += nanos;
+		totals[1] += bytes;
+		totals[2] += words;
+		totals[3] += bigrams;
+	}
+	
+	
+	
+	
+	/**
+	 * Prints the words per second and the bytes per word.
+	 */
+	private static void print(String name , long[] totals)
+	{
+		String perSecond = String.format("%.0f" , totals[2] / (totals[0] / 1000000000.0));
+		String perWord = totals[1] < 0 ? "unknown" : String.format("%.1f" , totals[1] / (double)totals[2]);
+		
+		System.out.println(name + " : " + perSecond + " words/s , " + perWord + " bytes/word.");
+	}
+	
+	
+	
+	
+	/**
+	 * The words of a text , as SimpleAnalyzer found them before it had the reset()/next() API.
+	 */
+	private static List<String> wordsOfText(BigramDictionary dictionary , PorterStemmer stemmer , String text)
+	{
+		List<String> words = new ArrayList<String>();
+		StringTokenizer tokenizer = new StringTokenizer(text , "[- :]+");
+		
+		while(tokenizer.hasMoreTokens())
+		{
+			String token = tokenizer.nextToken();
+			
+			if(dictionary.isStopword(token.trim())) continue;
+			
+			char[] w = token.toCharArray();
+			
+			for(int c = 0; c < w.length; c++)
+			{
+				Character ch = w[c];
+				
+				if(Character.isLetter(ch) || Character.isDigit(ch)) stemmer.add(ch);
+			}
+			
+			stemmer.stem();
+			words.add(stemmer.toString());
+		}
+		
+		return words;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the bytes that the current thread has allocated , or -1 if the JVM can not tell.
+	 */
+	private static long allocatedBytes()
+	{
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		
+		if(!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+		
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+		
+		if(!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) return -1;
+		
+		return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
\ No newline at end of file
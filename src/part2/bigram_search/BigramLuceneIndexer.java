@@ -1,195 +1,250 @@
-package part2.bigram_search;
-
-
-import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.en.EnglishAnalyzer;
-import org.apache.lucene.document.Document;
-import org.apache.lucene.document.IntField;
-import org.apache.lucene.document.Field;
-import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig.OpenMode;
-import org.apache.lucene.index.IndexWriterConfig;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
-import org.apache.lucene.util.Version;
-
-import part2.medlars.MedlarsDocument;
-import part2.medlars.MedlarsDocumentReader;
-import part2.util.SimpleAnalyzer;
-
-import java.io.File;
-import java.util.List;
-
-
-/**
- * @author Stamatis Pitsios
- *
- * Thic class provides the necessary functionality , to create indexes 
- * based on simple words and bigrams that were found during the first part of the project.
- */
-public class BigramLuceneIndexer 
-{
-
-	/**
-	 * The path of the file that contains the medlars collection.
-	 */
-	private String docsFile;
-	
-	/**
-	 * The name of the directory that Lucene is going to store the indexes.
-	 */
-	private String indexLocation;
-	
-	/**
-	 * Our reader.
-	 */
-	private MedlarsDocumentReader reader;
-	
-	/**
-	 * A simple analyzer object , usefull to handle the documents.
-	 */
-	private SimpleAnalyzer simpleAnalyzer;
-	
-    
-	
-	
-	/**
-	 * Constructor.
-	 * 
-	 * @param docsPath The path of the medlars collection file.
-	 * @param indexPath The folder that the indexes are going to be stored.
-	 */
-	public BigramLuceneIndexer(String docsPath , String indexPath)
-	{
-		this.docsFile = docsPath;
-		this.indexLocation = indexPath;
-		this.reader = new MedlarsDocumentReader(this.docsFile);
-		this.simpleAnalyzer = new SimpleAnalyzer();
-	}
-	
-	
-	
-	
-	/**
-	 * Creates the Lucene indexes.
-	 */
-	public void createIndex()
-	{
-		//Get all the documents of the collection.
-		List<MedlarsDocument> docs = reader.getDocuments();
-		
-		//Useful to count how much time did it take to get the answers for all the queries.
-		long start = System.currentTimeMillis();
-		
-		try
-		{
-			System.out.println("Indexing to directory '" + this.indexLocation + "'. Please wait...");
-			
-			//Create the directory where the indexes will be stored.
-			Directory dir = FSDirectory.open(new File(indexLocation));
-	            
-			//Define which analyzer to use for the normalization of documents.
-	        //Analyzer analyzer = new NGramAnalyzer(this.stopwords);
-			Analyzer analyzer = new EnglishAnalyzer(Version.LUCENE_4_9);
-			
-	        //Configure IndexWriter.
-	        IndexWriterConfig iwc = new IndexWriterConfig(Version.LUCENE_4_9 , analyzer);
-	        
-	        //Create a new index in the directory, removing any previously indexed documents:
-            iwc.setOpenMode(OpenMode.CREATE);
-            
-            //Create the IndexWriter with the configuration as above. 
-            IndexWriter indexWriter = new IndexWriter(dir, iwc);
-            
-            //Index every document.
-            for(MedlarsDocument doc : docs)
-            {
-            	this.indexDocument(indexWriter, doc);
-            }
-            
-            //Close the output stream.
-            indexWriter.close();
-            
-            //Print  the elapsed time.
-            long end = System.currentTimeMillis();
-            System.out.println("Time took to create index : " + (double)(end-start)/(double)1000 + " seconds.\n");
-		}
-		
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-	}
-	
-	
-	
-	
-	/**
-	 * Creates a Document by adding Fields in it and 
-     * indexes the Document with the IndexWriter
-	 * 
-	 * @param indexWriter The indexWriter that will index Documents
-	 * @param document The document to be indexed
-	 */
-	private void indexDocument(IndexWriter indexWriter , MedlarsDocument document)
-	{
-		try
-		{
-			//Make a new , empty document.
-            Document doc = new Document();
-            
-            //Get all the words of the current med document.
-            List<String> words = this.simpleAnalyzer.wordsOfText(document.getText());
-            
-            /*
-             * Create the fields of the document and add them to the index.
-             */
-            
-            //Add the id of the document.
-            IntField docID = new IntField("id" , document.getId() , Field.Store.YES);
-            doc.add(docID);
-                        
-            //A String that will keep all the bigrams found in this document and that are also contained in the Bindex.
-            String bigrams = "";           
-            
-            //now try to add possible bigrams to the index.
-            for(int i = 0; i < words.size(); i++)
-            {                       	
-            	if(i < words.size() - 1)
-            	{
-            		//Get the current word.
-            		String firstWord = words.get(i);
-            		
-            		//Get the next word.
-            		String secondWord = words.get(i+1);
-            		
-            		//Create a bigram in the format that bigrams are contained in the Bindex.
-            		String bigram = firstWord+"_"+secondWord;
-            		
-            		//If the bigram above is contained in the Bindex , then add it to the 'bigrams' string.
-            		if(this.simpleAnalyzer.isInBindex(bigram))
-            		{
-            			bigrams += " "+firstWord+secondWord;
-            		}
-            	}
-            }
-            
-            //Create the final text by adding the normal text and then the bigrams to end of it.
-            String finalText = document.getText() + " " + bigrams;
-            TextField fText = new TextField("text" , finalText , Field.Store.NO);
-            doc.add(fText);
-            
-            if (indexWriter.getConfig().getOpenMode() == OpenMode.CREATE) 
-            {
-                //New index, so we just add the document (no old document can be there).
-                indexWriter.addDocument(doc);
-            } 
-		}
-		
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-	}
+package part2.bigram_search;
+
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+
+import part2.medlars.CorpusCache;
+import part2.medlars.DocumentStore;
+import part2.medlars.MedlarsDocument;
+import part2.util.DocumentTemplate;
+import part2.util.IndexingPipeline;
+
+import java.io.File;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Thic class provides the necessary functionality , to create indexes 
+ * based on simple words and bigrams that were found during the first part of the project.
+ */
+public class BigramLuceneIndexer 
+{
+
+	/**
+	 * The path of the file that contains the medlars collection.
+	 */
+	private String docsFile;
+	
+	/**
+	 * The name of the directory that Lucene is going to store the indexes.
+	 */
+	private String indexLocation;
+	
+	/**
+	 * Our reader. It reads the documents from the binary cache of the collection , which is created on the first run.
+	 */
+	private CorpusCache reader;
+	
+	/**
+	 * The number of threads that index the documents.
+	 */
+	private int threads;
+	
+	/**
+	 * The number of bytes that the indexing threads allocated during the last run , or -1 if it could not be measured.
+	 */
+	private long allocatedBytes;
+	
+    
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param docsPath The path of the medlars collection file.
+	 * @param indexPath The folder that the indexes are going to be stored.
+	 */
+	public BigramLuceneIndexer(String docsPath , String indexPath)
+	{
+		this.docsFile = docsPath;
+		this.indexLocation = indexPath;
+		this.reader = new CorpusCache(this.docsFile);
+		this.threads = 1;
+		this.allocatedBytes = -1;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the number of threads that index the documents. The BindexAnalyzer gives every thread its own token stream.
+	 * With more than one thread , the documents may be stored in the index in a different order than in the collection.
+	 * 
+	 * @param threads The number of indexing threads.
+	 */
+	public void setThreads(int threads)
+	{
+		this.threads = Math.max(1 , threads);
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the number of bytes that the indexing threads allocated during the last call of createIndex().
+	 * 
+	 * @return The allocated bytes , or -1 if the JVM can not measure them.
+	 */
+	public long getAllocatedBytes()
+	{
+		return this.allocatedBytes;
+	}
+	
+	
+	
+	
+	/**
+	 * Creates the Lucene indexes.
+	 */
+	public void createIndex()
+	{
+		//Useful to count how much time did it take to get the answers for all the queries.
+		long start = System.currentTimeMillis();
+		
+		try
+		{
+			System.out.println("Indexing to directory '" + this.indexLocation + "'. Please wait...");
+			
+			//Create the directory where the indexes will be stored.
+			Directory dir = FSDirectory.open(new File(indexLocation));
+	            
+			//Define which analyzer to use for the normalization of documents.
+	        //It adds the bigrams of the BINDEX while it analyzes the text , so every document is tokenized once.
+			Analyzer analyzer = new BindexAnalyzer();
+			
+	        //Configure IndexWriter.
+	        IndexWriterConfig iwc = new IndexWriterConfig(Version.LUCENE_4_9 , analyzer);
+	        
+	        //Create a new index in the directory, removing any previously indexed documents:
+            iwc.setOpenMode(OpenMode.CREATE);
+            
+            //Allow all the indexing threads to add documents at the same time.
+            iwc.setMaxThreadStates(Math.max(this.threads , IndexWriterConfig.DEFAULT_MAX_THREAD_STATES));
+            
+            //Create the IndexWriter with the configuration as above. 
+            final IndexWriter indexWriter = new IndexWriter(dir, iwc);
+            
+            //Start the threads that will index the documents. Each one gets its own analyzer.
+            IndexingPipeline pipeline = new IndexingPipeline(this.threads , new IndexingPipeline.WorkerFactory()
+            {
+            	@Override
+            	public IndexingPipeline.Worker newWorker()
+            	{
+            		return new IndexingWorker(indexWriter);
+            	}
+            });
+            
+            //Index every document while the collection is being read.
+            for(MedlarsDocument doc : this.reader)
+            {
+            	pipeline.submit(doc.getId(), doc.getText());
+            }
+            
+            //Wait for the workers to index all the documents.
+            int indexed = pipeline.finish();
+            this.allocatedBytes = pipeline.getAllocatedBytes();
+            
+            //Close the output stream.
+            indexWriter.close();
+            
+            //Print  the elapsed time and the throughput.
+            long end = System.currentTimeMillis();
+            System.out.println("Time took to create index : " + (double)(end-start)/(double)1000 + " seconds.");
+            System.out.println("Indexed " + indexed + " documents with " + pipeline.getThreads() + " thread(s) : " + (long)(indexed * 1000.0 / Math.max(1 , end - start)) + " docs/sec.");
+            if(pipeline.getAllocatedBytes() >= 0) System.out.println("Allocated " + pipeline.getAllocatedBytes() / Math.max(1 , indexed) + " bytes per document in the indexing threads.");
+            System.out.println();
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * The worker of an indexing thread. It keeps its own reusable Document ,
+	 * so that the threads do not share anything except the IndexWriter.
+	 */
+	private class IndexingWorker implements IndexingPipeline.Worker
+	{
+		
+		/**
+		 * The writer of the index.
+		 */
+		private IndexWriter indexWriter;
+		
+		/**
+		 * The reusable Document of this thread.
+		 */
+		private DocumentTemplate template;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param indexWriter The indexWriter that will index Documents.
+		 */
+		public IndexingWorker(IndexWriter indexWriter)
+		{
+			this.indexWriter = indexWriter;
+			this.template = new DocumentTemplate();
+		}
+		
+		
+		
+		
+		@Override
+		public boolean index(DocumentStore.View document)
+		{
+			return this.indexDocument(document);
+		}
+		
+		
+		
+		
+		/**
+		 * Creates a Document by adding Fields in it and 
+	     * indexes the Document with the IndexWriter
+		 * 
+		 * @param document The document to be indexed
+		 * 
+		 * @return true If the document was indexed , false otherwise.
+		 */
+		private boolean indexDocument(DocumentStore.View document)
+		{
+			try
+			{
+	            //Reuse the document and its fields , only setting their new values. The analyzer adds the bigrams to the text.
+	            Document doc = this.template.set(document.getId() , document.reader());
+	            
+	            if (this.indexWriter.getConfig().getOpenMode() == OpenMode.CREATE) 
+	            {
+	                //New index, so we just add the document (no old document can be there).
+	                this.indexWriter.addDocument(doc);
+	            } 
+	            
+	            return true;
+			}
+			
+			catch(Exception e)
+			{
+				e.printStackTrace();
+				
+				return false;
+			}
+		}
+	}
 }
\ No newline at end of file
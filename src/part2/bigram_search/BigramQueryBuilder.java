@@ -0,0 +1,138 @@
+package part2.bigram_search;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Builds the query of a text for the bigrams index directly as a BooleanQuery , without a QueryParser.
+ * The text is analyzed once by a BindexAnalyzer , and every token becomes a SHOULD clause : the words ,
+ * and the glued bigrams of the BINDEX that the BindexBigramFilter adds , the same way they are added to the documents
+ * by BigramLuceneIndexer. The clauses of the words and of the bigrams can have different boosts.
+ *
+ * There are no operators or special characters , so every text can be searched. The builder keeps no state
+ * while it builds a query , so it can be shared by many threads once its boosts are set.
+ */
+public class BigramQueryBuilder
+{
+	
+	/**
+	 * The analyzer of the index , that finds the words and the bigrams of the text.
+	 */
+	private Analyzer analyzer;
+	
+	/**
+	 * The field that we will be searching.
+	 */
+	private String searchField;
+	
+	/**
+	 * The boost of the clauses of the words.
+	 */
+	private float unigramBoost;
+	
+	/**
+	 * The boost of the clauses of the bigrams.
+	 */
+	private float bigramBoost;
+	
+	
+	
+	
+	/**
+	 * Constructor. The boosts are 1.
+	 *
+	 * @param analyzer The analyzer of the index. The bigrams are the tokens of type BindexBigramFilter.TYPE ,
+	 *                 so with any analyzer other than a BindexAnalyzer , the query has only the words.
+	 * @param searchField The field to search in.
+	 */
+	public BigramQueryBuilder(Analyzer analyzer , String searchField)
+	{
+		this.analyzer = analyzer;
+		this.searchField = searchField;
+		this.unigramBoost = 1;
+		this.bigramBoost = 1;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the boost of the clauses of the words.
+	 *
+	 * @param unigramBoost The boost.
+	 */
+	public void setUnigramBoost(float unigramBoost)
+	{
+		this.unigramBoost = unigramBoost;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the boost of the clauses of the bigrams.
+	 *
+	 * @param bigramBoost The boost.
+	 */
+	public void setBigramBoost(float bigramBoost)
+	{
+		this.bigramBoost = bigramBoost;
+	}
+	
+	
+	
+	
+	/**
+	 * Builds the query of a text.
+	 *
+	 * @param text The text of the query.
+	 *
+	 * @return query The query.
+	 *
+	 * @throws IOException If the text can not be analyzed.
+	 */
+	public Query build(String text) throws IOException
+	{
+		BooleanQuery query = new BooleanQuery();
+		
+		TokenStream stream = this.analyzer.tokenStream(this.searchField , text);
+		
+		try
+		{
+			CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+			TypeAttribute type = stream.addAttribute(TypeAttribute.class);
+			stream.reset();
+			
+			while(stream.incrementToken())
+			{
+				//The words and the bigrams of the text come from the same stream.
+				boolean bigram = BindexBigramFilter.TYPE.equals(type.type());
+				
+				TermQuery clause = new TermQuery(new Term(this.searchField , term.toString()));
+				clause.setBoost(bigram ? this.bigramBoost : this.unigramBoost);
+				query.add(clause , BooleanClause.Occur.SHOULD);
+			}
+			
+			stream.end();
+		}
+		
+		finally
+		{
+			stream.close();
+		}
+		
+		return query;
+	}
+}
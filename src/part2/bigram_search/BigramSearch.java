@@ -1,15 +1,38 @@
-package part2.bigram_search;
-
-public class BigramSearch 
-{
-	public static void main(String[] args) 
-	{
-		//Create the index.
-		BigramLuceneIndexer indexer = new BigramLuceneIndexer("medlars/MED.ALL", "index/index_bigrams");
-		indexer.createIndex();
-		
-		//Make the queries to the Lucene.
-		BigramLuceneSearcher searcher = new BigramLuceneSearcher("index/index_bigrams", "text" , "medlars/MED.QRY" , 100 );
-		searcher.search();
-	}
+package part2.bigram_search;
+
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.search.similarities.LMDirichletSimilarity;
+import org.apache.lucene.search.similarities.Similarity;
+
+import part2.util.RunWriter;
+
+public class BigramSearch 
+{
+	public static void main(String[] args) 
+	{
+		//Options : "-threads N" to index with N threads ,
+		//"-binary" to save the results as a binary run , "-bm25 k1 b" or "-lm mu" to score the documents with BM25 or LMDirichlet.
+		int threads = 1;
+		boolean binary = false;
+		Similarity similarity = null;
+		
+		for(int i = 0; i < args.length; i++)
+		{
+			if(args[i].equals("-threads") && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-binary")) binary = true;
+			else if(args[i].equals("-bm25") && i + 2 < args.length) similarity = new BM25Similarity(Float.parseFloat(args[++i]) , Float.parseFloat(args[++i]));
+			else if(args[i].equals("-lm") && i + 1 < args.length) similarity = new LMDirichletSimilarity(Float.parseFloat(args[++i]));
+		}
+		
+		//Create the index.
+		BigramLuceneIndexer indexer = new BigramLuceneIndexer("medlars/MED.ALL", "index/index_bigrams");
+		indexer.setThreads(threads);
+		indexer.createIndex();
+		
+		//Make the queries to the Lucene.
+		BigramLuceneSearcher searcher = new BigramLuceneSearcher("index/index_bigrams", "text" , "medlars/MED.QRY" , 100 );
+		searcher.setRunFormat(binary ? RunWriter.Format.BINARY : RunWriter.Format.TREC);
+		searcher.setSimilarity(similarity);
+		searcher.search();
+	}
 }
\ No newline at end of file
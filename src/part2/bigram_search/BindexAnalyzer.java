@@ -0,0 +1,89 @@
+package part2.bigram_search;
+
+import java.io.Reader;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.en.EnglishPossessiveFilter;
+import org.apache.lucene.analysis.en.PorterStemFilter;
+import org.apache.lucene.analysis.standard.StandardFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.util.Version;
+
+import part1.stemming.StemCache;
+import part2.util.BigramDictionary;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * The analyzer of the bigrams index. It analyzes a text like the EnglishAnalyzer and adds the bigrams of the BINDEX
+ * with a BindexBigramFilter , at the same positions as their second words. The filter comes before the stop words and
+ * the stemming of the EnglishAnalyzer , and finds the bigrams with the stop words of the BINDEX and the stemmer of part 1.
+ * The text is tokenized once , for the words and for the bigrams , so the documents and the queries are not analyzed
+ * a second time to find their bigrams. Like every Analyzer , it can be shared by many threads.
+ */
+public class BindexAnalyzer extends Analyzer
+{
+	
+	/**
+	 * The stop words and the BINDEX.
+	 */
+	private BigramDictionary dictionary;
+	
+	/**
+	 * The cache of the stems of the words , for the bigrams.
+	 */
+	private StemCache cache;
+	
+	
+	
+	
+	/**
+	 * Constructor. Uses the dictionary of the default stop words and BINDEX files and the default stem cache.
+	 */
+	public BindexAnalyzer()
+	{
+		this(BigramDictionary.getDefault() , StemCache.getDefault());
+	}
+	
+	
+	
+	
+	/**
+	 * Overloaded constructor.
+	 *
+	 * @param dictionary The stop words and the BINDEX.
+	 * @param cache The cache of the stems of the words.
+	 */
+	public BindexAnalyzer(BigramDictionary dictionary , StemCache cache)
+	{
+		this.dictionary = dictionary;
+		this.cache = cache;
+	}
+	
+	
+	
+	
+	/**
+	 * The filters of the EnglishAnalyzer , with a BindexBigramFilter before the stop words and the stemming.
+	 */
+	@Override
+	protected TokenStreamComponents createComponents(String fieldName , Reader reader)
+	{
+		Tokenizer source = new StandardTokenizer(Version.LUCENE_4_9 , reader);
+		
+		TokenStream result = new StandardFilter(Version.LUCENE_4_9 , source);
+		result = new EnglishPossessiveFilter(Version.LUCENE_4_9 , result);
+		result = new LowerCaseFilter(Version.LUCENE_4_9 , result);
+		result = new BindexBigramFilter(result , this.dictionary , this.cache);
+		result = new StopFilter(Version.LUCENE_4_9 , result , EnglishAnalyzer.getDefaultStopSet());
+		result = new PorterStemFilter(result);
+		
+		return new TokenStreamComponents(source , result);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package part2.bigram_search;
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+
+import part1.stemming.PorterStemmer;
+import part1.stemming.StemCache;
+import part2.util.BigramDictionary;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A TokenFilter that finds the bigrams of the BINDEX while the text is analyzed. It must come after the tokenizer and
+ * the LowerCaseFilter , and before the StopFilter and the PorterStemFilter , because the words are checked the way the BINDEX
+ * was built : the stop words of the BigramDictionary are skipped and do not break a bigram , and the letters and the digits
+ * of every other word are stemmed with the PorterStemmer of part 1. When a word and the word before it are a bigram of the BINDEX ,
+ * the word is followed by an extra token with their two stems glued together , the same text that SimpleAnalyzer glues ,
+ * so the filters after this one turn it into the same term. The words themselves are passed on unchanged.
+ *
+ * The extra token has a position increment of 0 and the offsets of the second word , so it is at the same place as the second word ,
+ * and its type is TYPE , so that a query can tell the bigrams from the words. The words are looked up by their ids
+ * in the BigramDictionary , and most stems are found in the StemCache.
+ */
+public final class BindexBigramFilter extends TokenFilter
+{
+	
+	/**
+	 * The type of the tokens of the bigrams.
+	 */
+	public static final String TYPE = "<BIGRAM>";
+	
+	/**
+	 * The term of the current token.
+	 */
+	private final CharTermAttribute termAttribute = addAttribute(CharTermAttribute.class);
+	
+	/**
+	 * The position increment of the current token.
+	 */
+	private final PositionIncrementAttribute positionAttribute = addAttribute(PositionIncrementAttribute.class);
+	
+	/**
+	 * The type of the current token.
+	 */
+	private final TypeAttribute typeAttribute = addAttribute(TypeAttribute.class);
+	
+	/**
+	 * The stop words and the BINDEX.
+	 */
+	private BigramDictionary dictionary;
+	
+	/**
+	 * The cache of the stems of the words.
+	 */
+	private StemCache cache;
+	
+	/**
+	 * Stems the words that are not in the cache.
+	 */
+	private PorterStemmer stemmer;
+	
+	/**
+	 * The letters and the digits of the current word , and then its stem.
+	 */
+	private char[] letters;
+	
+	/**
+	 * The id of the previous word in the dictionary , or -1 if it is not a word of the BINDEX or there is no previous word.
+	 */
+	private int previousId;
+	
+	/**
+	 * The stem of the previous word , or null if there is no previous word.
+	 */
+	private String previous;
+	
+	/**
+	 * The glued bigram of the last word , waiting to be returned as the next token , or null if there is none.
+	 */
+	private String pending;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param input The lower case words.
+	 * @param dictionary The stop words and the BINDEX.
+	 * @param cache The cache of the stems of the words.
+	 */
+	public BindexBigramFilter(TokenStream input , BigramDictionary dictionary , StemCache cache)
+	{
+		super(input);
+		
+		this.dictionary = dictionary;
+		this.cache = cache;
+		this.stemmer = new PorterStemmer();
+		this.letters = new char[32];
+		this.previousId = -1;
+	}
+	
+	
+	
+	
+	@Override
+	public boolean incrementToken() throws IOException
+	{
+		if(this.pending != null)
+		{
+			//The attributes of the second word are kept , except for the ones that make the token a bigram.
+			this.termAttribute.setEmpty().append(this.pending);
+			this.positionAttribute.setPositionIncrement(0);
+			this.typeAttribute.setType(TYPE);
+			this.pending = null;
+			
+			return true;
+		}
+		
+		if(!this.input.incrementToken()) return false;
+		
+		char[] buffer = this.termAttribute.buffer();
+		int length = this.termAttribute.length();
+		
+		//The stop words of the BINDEX are skipped , so the words around them are still a bigram.
+		if(this.dictionary.isStopword(buffer , 0 , length)) return true;
+		
+		if(length > this.letters.length) this.letters = new char[Math.max(length , 2 * this.letters.length)];
+		int count = 0;
+		
+		for(int c = 0; c < length; c++)
+		{
+			if(Character.isLetter(buffer[c]) || Character.isDigit(buffer[c])) this.letters[count++] = buffer[c];
+		}
+		
+		String stem = this.cache.stem(this.letters , count , this.stemmer);
+		
+		//The letters are not needed any more , so the stem is looked up from the same array.
+		if(stem.length() > this.letters.length) this.letters = new char[stem.length()];
+		stem.getChars(0 , stem.length() , this.letters , 0);
+		int id = this.dictionary.getTermId(this.letters , 0 , stem.length());
+		
+		if(this.dictionary.isInBindex(this.previousId , id)) this.pending = this.previous + stem;
+		
+		//The current word becomes the previous one.
+		this.previous = stem;
+		this.previousId = id;
+		
+		return true;
+	}
+	
+	
+	
+	
+	@Override
+	public void reset() throws IOException
+	{
+		super.reset();
+		
+		this.previousId = -1;
+		this.previous = null;
+		this.pending = null;
+	}
+}
@@ -0,0 +1,250 @@
+package part2.engine;
+
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.search.Query;
+
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A cache of the results of the queries , that keeps at most a given number of entries.
+ * When it is full , the entry that was used least recently is evicted.
+ *
+ * The key of an entry is the rewritten query , the number of the documents retrieved and the version of the
+ * index reader that answered it , so a result is never returned for a different version of the index.
+ * The cache can be used by many threads at the same time.
+ */
+public class ResultCache
+{
+	
+	/**
+	 * The entries of the cache , in the order that they were used.
+	 */
+	private LinkedHashMap<Key , SearchHit[]> entries;
+	
+	/**
+	 * The number of the lookups that found their entry.
+	 */
+	private AtomicLong hits;
+	
+	/**
+	 * The number of the lookups that did not find their entry.
+	 */
+	private AtomicLong misses;
+	
+	/**
+	 * The number of the entries that were evicted because the cache was full.
+	 */
+	private AtomicLong evictions;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param maxEntries The maximum number of entries that the cache keeps.
+	 */
+	public ResultCache(final int maxEntries)
+	{
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+		
+		this.entries = new LinkedHashMap<Key , SearchHit[]>(16 , 0.75f , true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key , SearchHit[]> eldest)
+			{
+				if(size() > maxEntries)
+				{
+					evictions.incrementAndGet();
+					return true;
+				}
+				
+				return false;
+			}
+		};
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the results of a query , if they are in the cache.
+	 *
+	 * @param query The rewritten query.
+	 * @param k The number of the documents retrieved.
+	 * @param version The version of the index reader.
+	 *
+	 * @return hits The results of the query , or null if they are not in the cache. They must not be modified.
+	 */
+	public SearchHit[] get(Query query , int k , long version)
+	{
+		SearchHit[] result;
+		
+		synchronized(this)
+		{
+			result = this.entries.get(new Key(query , k , version));
+		}
+		
+		if(result == null) this.misses.incrementAndGet();
+		else this.hits.incrementAndGet();
+		
+		return result;
+	}
+	
+	
+	
+	
+	/**
+	 * Adds the results of a query to the cache.
+	 *
+	 * @param query The rewritten query.
+	 * @param k The number of the documents retrieved.
+	 * @param version The version of the index reader.
+	 * @param result The results of the query.
+	 */
+	public synchronized void put(Query query , int k , long version , SearchHit[] result)
+	{
+		this.entries.put(new Key(query , k , version) , result);
+	}
+	
+	
+	
+	
+	/**
+	 * Removes all the entries. It is called when the index is reopened.
+	 */
+	public synchronized void clear()
+	{
+		this.entries.clear();
+	}
+	
+	
+	
+	
+	/**
+	 * @return size The number of the entries in the cache.
+	 */
+	public synchronized int size()
+	{
+		return this.entries.size();
+	}
+	
+	
+	
+	
+	/**
+	 * @return hits The number of the lookups that found their entry.
+	 */
+	public long getHits()
+	{
+		return this.hits.get();
+	}
+	
+	
+	
+	
+	/**
+	 * @return misses The number of the lookups that did not find their entry.
+	 */
+	public long getMisses()
+	{
+		return this.misses.get();
+	}
+	
+	
+	
+	
+	/**
+	 * @return evictions The number of the entries that were evicted because the cache was full.
+	 */
+	public long getEvictions()
+	{
+		return this.evictions.get();
+	}
+	
+	
+	
+	
+	@Override
+	public String toString()
+	{
+		return "size : " + size() + " , hits : " + getHits() + " , misses : " + getMisses() + " , evictions : " + getEvictions();
+	}
+	
+	
+	
+	
+	/**
+	 * The key of an entry.
+	 */
+	private static class Key
+	{
+		
+		/**
+		 * The rewritten query.
+		 */
+		private Query query;
+		
+		/**
+		 * The number of the documents retrieved.
+		 */
+		private int k;
+		
+		/**
+		 * The version of the index reader.
+		 */
+		private long version;
+		
+		/**
+		 * The hash code , computed once because a query may be large.
+		 */
+		private int hash;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 */
+		public Key(Query query , int k , long version)
+		{
+			this.query = query;
+			this.k = k;
+			this.version = version;
+			this.hash = 31 * (31 * query.hashCode() + k) + (int)(version ^ (version >>> 32));
+		}
+		
+		
+		
+		
+		@Override
+		public int hashCode()
+		{
+			return this.hash;
+		}
+		
+		
+		
+		
+		@Override
+		public boolean equals(Object o)
+		{
+			if(!(o instanceof Key)) return false;
+			
+			Key other = (Key)o;
+			
+			return this.hash == other.hash && this.k == other.k && this.version == other.version && this.query.equals(other.query);
+		}
+	}
+}
\ No newline at end of file
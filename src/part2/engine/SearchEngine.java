@@ -0,0 +1,378 @@
+package part2.engine;
+
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+
+import part2.bigram_search.BigramQueryBuilder;
+import part2.bigram_search.BindexAnalyzer;
+import part2.util.MedlarsIds;
+
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A search engine that stays open and answers queries one at a time , for as long as it lives.
+ * Unlike SimpleLuceneSearcher and BigramLuceneSearcher , that open the index , run a file of queries and close it ,
+ * the index is opened only once and it is reopened only when it has changed , so a query pays only for its search.
+ *
+ * It can search both the simple index and the bigrams index. For the bigrams index , the query is built with
+ * a BigramQueryBuilder and a BindexAnalyzer , that finds the words and the bigrams of the text in one pass ,
+ * without a QueryParser. The engine can be used by many threads at the same time.
+ */
+public class SearchEngine
+{
+	
+	/**
+	 * The number of milliseconds between two checks for changes of the index , by default.
+	 */
+	public static final long DEFAULT_REFRESH_MILLIS = 1000;
+	
+	/**
+	 * The number of the entries that the cache of the results keeps , by default.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+	
+	/**
+	 * The directory of the index.
+	 */
+	private Directory directory;
+	
+	/**
+	 * Keeps the current IndexSearcher and gives it to the threads that search.
+	 * A searcher is closed only after all the threads that have acquired it have released it.
+	 */
+	private SearcherManager searcherManager;
+	
+	/**
+	 * The analyzer of the queries. It can be shared by all the threads.
+	 */
+	private Analyzer analyzer;
+	
+	/**
+	 * True if the bigrams of the queries must be added to them.
+	 */
+	private boolean bigrams;
+	
+	/**
+	 * A query parser for every thread , because a parser is not thread safe.
+	 */
+	private ThreadLocal<QueryParser> parsers;
+	
+	/**
+	 * The cache of the results. It is null if the results are not cached.
+	 */
+	private ResultCache cache;
+	
+	/**
+	 * The builder of the queries of the bigrams index. It is shared by all the threads.
+	 */
+	private BigramQueryBuilder builder;
+	
+	/**
+	 * The thread that checks the index for changes. It is null if the index is never checked automatically.
+	 */
+	private ScheduledExecutorService refresher;
+	
+	
+	
+	
+	/**
+	 * Constructor. The index is checked for changes every DEFAULT_REFRESH_MILLIS milliseconds.
+	 *
+	 * @param indexLocation The folder that keeps the index.
+	 * @param searchField The field to search in.
+	 * @param bigrams True if the index is a bigrams index , so the bigrams of the queries must be added to them.
+	 *
+	 * @throws IOException If the index can not be opened.
+	 */
+	public SearchEngine(String indexLocation , String searchField , boolean bigrams) throws IOException
+	{
+		this(indexLocation , searchField , bigrams , DEFAULT_REFRESH_MILLIS);
+	}
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param indexLocation The folder that keeps the index.
+	 * @param searchField The field to search in.
+	 * @param bigrams True if the index is a bigrams index , so the bigrams of the queries must be added to them.
+	 * @param refreshMillis The number of milliseconds between two checks for changes of the index.
+	 * If it is 0 , the index is checked only when maybeRefresh() is called.
+	 *
+	 * @throws IOException If the index can not be opened.
+	 */
+	public SearchEngine(String indexLocation , final String searchField , boolean bigrams , long refreshMillis) throws IOException
+	{
+		this.directory = FSDirectory.open(new File(indexLocation));
+		this.searcherManager = new SearcherManager(this.directory , null);
+		this.analyzer = bigrams ? new BindexAnalyzer() : new EnglishAnalyzer(Version.LUCENE_4_9);
+		this.bigrams = bigrams;
+		this.cache = new ResultCache(DEFAULT_CACHE_SIZE);
+		
+		//The results that were cached for the previous version of the index can not be used any more.
+		this.searcherManager.addListener(new ReferenceManager.RefreshListener()
+		{
+			@Override
+			public void beforeRefresh()
+			{
+			}
+			
+			@Override
+			public void afterRefresh(boolean didRefresh)
+			{
+				ResultCache current = cache;
+				if(didRefresh && current != null) current.clear();
+			}
+		});
+		
+		this.parsers = new ThreadLocal<QueryParser>()
+		{
+			@Override
+			protected QueryParser initialValue()
+			{
+				return new QueryParser(Version.LUCENE_4_9 , searchField , analyzer);
+			}
+		};
+		
+		this.builder = new BigramQueryBuilder(this.analyzer , searchField);
+		
+		if(refreshMillis > 0)
+		{
+			//A daemon thread , so that it never keeps the JVM alive.
+			this.refresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable r)
+				{
+					Thread thread = new Thread(r , "SearchEngine-refresher");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			
+			this.refresher.scheduleWithFixedDelay(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					maybeRefresh();
+				}
+			} , refreshMillis , refreshMillis , TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the number of the entries that the cache of the results keeps. It must be called before the engine is used.
+	 * 
+	 * @param size The number of the entries. If it is 0 , the results are not cached.
+	 */
+	public void setCacheSize(int size)
+	{
+		this.cache = size > 0 ? new ResultCache(size) : null;
+	}
+	
+	
+	
+	
+	/**
+	 * @return cache The cache of the results , or null if the results are not cached.
+	 */
+	public ResultCache getCache()
+	{
+		return this.cache;
+	}
+	
+	
+	
+	
+	/**
+	 * Reopens the index if it has changed since it was last opened.
+	 * The queries that are running keep using the previous searcher until they finish.
+	 *
+	 * @return True if the index was reopened , or if it had not changed.
+	 */
+	public boolean maybeRefresh()
+	{
+		try
+		{
+			return this.searcherManager.maybeRefresh();
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Makes the query of a text. For the simple index , the text is parsed the same way SimpleLuceneSearcher does.
+	 * For a bigrams index , the query is built by a BigramQueryBuilder , with the bigrams of the text that are contained in the Bindex.
+	 *
+	 * @param text The text of the query.
+	 *
+	 * @return query The query.
+	 *
+	 * @throws ParseException If the text can not be parsed.
+	 * @throws IOException If the text can not be analyzed.
+	 */
+	public Query parse(String text) throws ParseException , IOException
+	{
+		if(this.bigrams)
+		{
+			return this.builder.build(text);
+		}
+		
+		return this.parsers.get().parse(text);
+	}
+	
+	
+	
+	
+	/**
+	 * Searches the index with the given query.
+	 *
+	 * @param text The text of the query.
+	 * @param k The number of the documents that we want to retrieve.
+	 *
+	 * @return hits The top k documents found , in the order of their score.
+	 *
+	 * @throws ParseException If the text can not be parsed.
+	 * @throws IOException If the index can not be read.
+	 */
+	public SearchHit[] search(String text , int k) throws ParseException , IOException
+	{
+		return this.search(this.parse(text) , k);
+	}
+	
+	
+	
+	
+	/**
+	 * Searches the index with the given query. If the query was answered before by the same version of the index ,
+	 * its results are taken from the cache.
+	 *
+	 * @param query The parsed query.
+	 * @param k The number of the documents that we want to retrieve.
+	 *
+	 * @return hits The top k documents found , in the order of their score. They must not be modified , because they may be cached.
+	 *
+	 * @throws IOException If the index can not be read.
+	 */
+	public SearchHit[] search(Query query , int k) throws IOException
+	{
+		IndexSearcher indexSearcher = this.searcherManager.acquire();
+		ResultCache cache = this.cache;
+		
+		try
+		{
+			long version = 0;
+			
+			if(cache != null)
+			{
+				//The rewritten query is the key , so that different texts that make the same query share their entry.
+				query = indexSearcher.rewrite(query);
+				version = ((DirectoryReader)indexSearcher.getIndexReader()).getVersion();
+				
+				SearchHit[] cached = cache.get(query , k , version);
+				if(cached != null) return cached;
+			}
+			
+			ScoreDoc[] scoreDocs = indexSearcher.search(query , k).scoreDocs;
+			SearchHit[] hits = new SearchHit[scoreDocs.length];
+			
+			//The ids must be read before the searcher is released , because it may be closed right after.
+			MedlarsIds ids = new MedlarsIds(indexSearcher.getIndexReader());
+			
+			for(int i = 0; i < scoreDocs.length; i++)
+			{
+				hits[i] = new SearchHit(ids.get(scoreDocs[i].doc) , scoreDocs[i].score);
+			}
+			
+			if(cache != null) cache.put(query , k , version , hits);
+			
+			return hits;
+		}
+		
+		finally
+		{
+			this.searcherManager.release(indexSearcher);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * @return numDocs The number of the documents in the index , as it was last opened.
+	 *
+	 * @throws IOException If the index can not be read.
+	 */
+	public int numDocs() throws IOException
+	{
+		IndexSearcher indexSearcher = this.searcherManager.acquire();
+		
+		try
+		{
+			return indexSearcher.getIndexReader().numDocs();
+		}
+		
+		finally
+		{
+			this.searcherManager.release(indexSearcher);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Stops checking the index for changes and closes it.
+	 * The engine can not be used after it is closed.
+	 */
+	public void close()
+	{
+		try
+		{
+			if(this.refresher != null) this.refresher.shutdownNow();
+			
+			this.searcherManager.close();
+			this.directory.close();
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package part2.engine;
+
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A document that was found by the SearchEngine , with the score that it got for the query.
+ */
+public class SearchHit
+{
+	
+	/**
+	 * The id of the medlars document.
+	 */
+	private int id;
+	
+	/**
+	 * The score of the document for the query.
+	 */
+	private float score;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param id The id of the medlars document.
+	 * @param score The score of the document for the query.
+	 */
+	public SearchHit(int id , float score)
+	{
+		this.id = id;
+		this.score = score;
+	}
+	
+	
+	
+	
+	/**
+	 * @return id The id of the medlars document.
+	 */
+	public int getId()
+	{
+		return this.id;
+	}
+	
+	
+	
+	
+	/**
+	 * @return score The score of the document for the query.
+	 */
+	public float getScore()
+	{
+		return this.score;
+	}
+	
+	
+	
+	
+	@Override
+	public String toString()
+	{
+		return this.id + " " + this.score;
+	}
+}
\ No newline at end of file
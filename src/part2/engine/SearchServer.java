@@ -0,0 +1,453 @@
+package part2.engine;
+
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.BooleanQuery;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A small HTTP server that answers queries on the SearchEngines that were added to it.
+ * Every engine is found by its name , for example "simple" or "bigrams".
+ *
+ * GET /search?index=simple&q=the+text+of+the+query&k=10 returns the top k documents in JSON :
+ * {"index":"simple","k":10,"micros":412,"hits":[{"id":13,"score":2.31},...]}
+ * where "micros" is the time that the server needed to answer the request , in microseconds.
+ * A query longer than MAX_QUERY_LENGTH characters is rejected , and k is capped at MAX_K.
+ *
+ * GET /stats returns the number of the requests that were answered , their average latency and the counters
+ * of the cache of the results of every engine.
+ */
+public class SearchServer
+{
+	
+	/**
+	 * The default port of the server.
+	 */
+	public static final int DEFAULT_PORT = 8080;
+	
+	/**
+	 * The number of the documents that are returned if the request does not say.
+	 */
+	public static final int DEFAULT_K = 10;
+	
+	/**
+	 * The maximum number of the documents that are returned. A larger k is lowered to this value ,
+	 * so that a single request can not make the engine collect and the server write a huge result.
+	 */
+	public static final int MAX_K = 1000;
+	
+	/**
+	 * The maximum number of characters of a query. The longest medlars query has about 430 characters.
+	 */
+	public static final int MAX_QUERY_LENGTH = 1024;
+	
+	/**
+	 * The number of the connections that may wait to be accepted.
+	 */
+	private static final int BACKLOG = 4096;
+	
+	/**
+	 * The JDK http server.
+	 */
+	private HttpServer server;
+	
+	/**
+	 * The threads that answer the requests.
+	 */
+	private ExecutorService executor;
+	
+	/**
+	 * The engines that can be searched , by their name.
+	 */
+	private Map<String , SearchEngine> engines;
+	
+	/**
+	 * The number of the queries that were answered.
+	 */
+	private AtomicLong requests;
+	
+	/**
+	 * The total time in nanoseconds that the queries needed.
+	 */
+	private AtomicLong totalNanos;
+	
+	
+	
+	
+	/**
+	 * Constructor. The server listens only on the loopback address.
+	 *
+	 * @param port The port of the server. If it is 0 , a free port is chosen.
+	 * @param threads The number of the threads that answer the requests.
+	 *
+	 * @throws IOException If the server can not listen on the port.
+	 */
+	public SearchServer(int port , int threads) throws IOException
+	{
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress() , port) , BACKLOG);
+		this.executor = Executors.newFixedThreadPool(threads);
+		this.engines = new HashMap<String , SearchEngine>();
+		this.requests = new AtomicLong();
+		this.totalNanos = new AtomicLong();
+		
+		this.server.setExecutor(this.executor);
+		this.server.createContext("/search" , new SearchHandler());
+		this.server.createContext("/stats" , new StatsHandler());
+	}
+	
+	
+	
+	
+	/**
+	 * Adds an engine to the server. All the engines must be added before the server starts.
+	 *
+	 * @param name The name of the engine in the requests.
+	 * @param engine The engine.
+	 */
+	public void addEngine(String name , SearchEngine engine)
+	{
+		this.engines.put(name , engine);
+	}
+	
+	
+	
+	
+	/**
+	 * Starts answering requests.
+	 */
+	public void start()
+	{
+		this.server.start();
+	}
+	
+	
+	
+	
+	/**
+	 * Stops the server and closes all its engines.
+	 */
+	public void stop()
+	{
+		this.server.stop(0);
+		this.executor.shutdown();
+		
+		for(SearchEngine engine : this.engines.values())
+		{
+			engine.close();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * @return port The port that the server listens on.
+	 */
+	public int getPort()
+	{
+		return this.server.getAddress().getPort();
+	}
+	
+	
+	
+	
+	/**
+	 * @return requests The number of the queries that were answered.
+	 */
+	public long getRequests()
+	{
+		return this.requests.get();
+	}
+	
+	
+	
+	
+	/**
+	 * @return averageMicros The average time in microseconds that the queries needed.
+	 */
+	public double getAverageMicros()
+	{
+		long n = this.requests.get();
+		
+		return n == 0 ? 0 : (double)this.totalNanos.get() / n / 1000;
+	}
+	
+	
+	
+	
+	/**
+	 * Splits the query string of a request to its parameters.
+	 *
+	 * @param query The query string of the request. It may be null.
+	 *
+	 * @return parameters The decoded parameters.
+	 */
+	private static Map<String , String> parameters(String query) throws IOException
+	{
+		Map<String , String> parameters = new HashMap<String , String>();
+		
+		if(query == null) return parameters;
+		
+		for(String pair : query.split("&"))
+		{
+			int eq = pair.indexOf('=');
+			
+			if(eq > 0)
+			{
+				parameters.put(URLDecoder.decode(pair.substring(0 , eq) , "UTF-8") , URLDecoder.decode(pair.substring(eq + 1) , "UTF-8"));
+			}
+		}
+		
+		return parameters;
+	}
+	
+	
+	
+	
+	/**
+	 * Appends a string to a JSON text , with quotes and escapes.
+	 */
+	private static void appendString(StringBuilder json , String s)
+	{
+		json.append('"');
+		
+		for(int i = 0; i < s.length(); i++)
+		{
+			char c = s.charAt(i);
+			
+			if(c == '"' || c == '\\') json.append('\\').append(c);
+			else if(c < 0x20) json.append(String.format(Locale.ROOT , "\\u%04x" , (int)c));
+			else json.append(c);
+		}
+		
+		json.append('"');
+	}
+	
+	
+	
+	
+	/**
+	 * Appends a score to a JSON text. JSON has no NaN or Infinity , so NaN is written as 0
+	 * and the infinities as the largest finite floats.
+	 */
+	private static void appendScore(StringBuilder json , float score)
+	{
+		if(Float.isNaN(score)) score = 0;
+		else if(score == Float.POSITIVE_INFINITY) score = Float.MAX_VALUE;
+		else if(score == Float.NEGATIVE_INFINITY) score = -Float.MAX_VALUE;
+		
+		json.append(score);
+	}
+	
+	
+	
+	
+	/**
+	 * Sends a JSON response and closes the exchange.
+	 */
+	private static void send(HttpExchange exchange , int status , StringBuilder json) throws IOException
+	{
+		byte[] body = json.toString().getBytes("UTF-8");
+		
+		exchange.getResponseHeaders().set("Content-Type" , "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status , body.length);
+		
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+	
+	
+	
+	
+	/**
+	 * Sends an error in JSON and closes the exchange.
+	 */
+	private static void sendError(HttpExchange exchange , int status , String message) throws IOException
+	{
+		StringBuilder json = new StringBuilder("{\"error\":");
+		appendString(json , message);
+		send(exchange , status , json.append('}'));
+	}
+	
+	
+	
+	
+	/**
+	 * Answers the queries.
+	 */
+	private class SearchHandler implements HttpHandler
+	{
+		@Override
+		public void handle(HttpExchange exchange) throws IOException
+		{
+			long start = System.nanoTime();
+			
+			try
+			{
+				Map<String , String> parameters = parameters(exchange.getRequestURI().getRawQuery());
+				
+				String name = parameters.containsKey("index") ? parameters.get("index") : "simple";
+				SearchEngine engine = engines.get(name);
+				String text = parameters.get("q");
+				
+				if(engine == null)
+				{
+					sendError(exchange , 404 , "Unknown index : " + name);
+					return;
+				}
+				
+				if(text == null || text.trim().isEmpty())
+				{
+					sendError(exchange , 400 , "The parameter q is missing.");
+					return;
+				}
+				
+				//Reject a long query before it is analyzed.
+				if(text.length() > MAX_QUERY_LENGTH)
+				{
+					sendError(exchange , 400 , "The parameter q must not be longer than " + MAX_QUERY_LENGTH + " characters.");
+					return;
+				}
+				
+				int k = parameters.containsKey("k") ? Integer.parseInt(parameters.get("k")) : DEFAULT_K;
+				
+				if(k <= 0)
+				{
+					sendError(exchange , 400 , "The parameter k must be positive.");
+					return;
+				}
+				
+				k = Math.min(k , MAX_K);
+				
+				SearchHit[] hits = engine.search(text , k);
+				
+				long nanos = System.nanoTime() - start;
+				requests.incrementAndGet();
+				totalNanos.addAndGet(nanos);
+				
+				//Write the results.
+				StringBuilder json = new StringBuilder(64 + hits.length * 32);
+				json.append("{\"index\":");
+				appendString(json , name);
+				json.append(",\"k\":").append(k).append(",\"micros\":").append(nanos / 1000).append(",\"hits\":[");
+				
+				for(int i = 0; i < hits.length; i++)
+				{
+					if(i > 0) json.append(',');
+					json.append("{\"id\":").append(hits[i].getId()).append(",\"score\":");
+					appendScore(json , hits[i].getScore());
+					json.append('}');
+				}
+				
+				send(exchange , 200 , json.append("]}"));
+			}
+			
+			catch(NumberFormatException e)
+			{
+				sendError(exchange , 400 , "The parameter k must be a number.");
+			}
+			
+			catch(ParseException e)
+			{
+				sendError(exchange , 400 , "The query can not be parsed.");
+			}
+			
+			catch(BooleanQuery.TooManyClauses e)
+			{
+				sendError(exchange , 400 , "The query has too many terms.");
+			}
+			
+			catch(Exception e)
+			{
+				e.printStackTrace();
+				sendError(exchange , 500 , String.valueOf(e.getMessage()));
+			}
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Answers the requests for the statistics of the server.
+	 */
+	private class StatsHandler implements HttpHandler
+	{
+		@Override
+		public void handle(HttpExchange exchange) throws IOException
+		{
+			StringBuilder json = new StringBuilder();
+			json.append("{\"requests\":").append(getRequests()).append(",\"averageMicros\":").append(String.format(Locale.ROOT , "%.1f" , getAverageMicros()));
+			json.append(",\"caches\":{");
+			
+			boolean first = true;
+			
+			for(Map.Entry<String , SearchEngine> entry : engines.entrySet())
+			{
+				ResultCache cache = entry.getValue().getCache();
+				if(cache == null) continue;
+				
+				if(!first) json.append(',');
+				first = false;
+				
+				appendString(json , entry.getKey());
+				json.append(":{\"size\":").append(cache.size()).append(",\"hits\":").append(cache.getHits());
+				json.append(",\"misses\":").append(cache.getMisses()).append(",\"evictions\":").append(cache.getEvictions()).append('}');
+			}
+			
+			json.append("}}");
+			
+			send(exchange , 200 , json);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Starts a server on the simple and the bigrams index.
+	 *
+	 * Usage : SearchServer [port] [threads]
+	 */
+	public static void main(String[] args)
+	{
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4 * Runtime.getRuntime().availableProcessors();
+		
+		try
+		{
+			SearchServer server = new SearchServer(port , threads);
+			server.addEngine("simple" , new SearchEngine("index/index_simple" , "text" , false));
+			server.addEngine("bigrams" , new SearchEngine("index/index_bigrams" , "text" , true));
+			server.start();
+			
+			System.out.println("Listening on http://localhost:" + server.getPort() + "/search?index=simple&q=...&k=" + DEFAULT_K);
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package part2.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.search.similarities.DefaultSimilarity;
+import org.apache.lucene.search.similarities.LMDirichletSimilarity;
+import org.apache.lucene.search.similarities.Similarity;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * The settings of a search that a ParameterSweep tries : the similarity that scores the documents with its parameters ,
+ * the boost of the bigrams (for the bigrams index) and the number of the documents that are retrieved for every query.
+ * A configuration does not change after it is created.
+ */
+public class Configuration
+{
+	
+	/**
+	 * The similarities that can be used.
+	 */
+	public static enum Model
+	{
+		/**
+		 * The DefaultSimilarity of Lucene (tf-idf) , that has no parameters.
+		 */
+		DEFAULT ,
+		
+		/**
+		 * BM25Similarity with the parameters k1 and b.
+		 */
+		BM25 ,
+		
+		/**
+		 * LMDirichletSimilarity with the parameter mu.
+		 */
+		LM_DIRICHLET
+	}
+	
+	/**
+	 * The similarity.
+	 */
+	private Model model;
+	
+	/**
+	 * k1 for BM25 , mu for LM_DIRICHLET.
+	 */
+	private float first;
+	
+	/**
+	 * b for BM25.
+	 */
+	private float second;
+	
+	/**
+	 * The boost of the bigrams.
+	 */
+	private float bigramBoost;
+	
+	/**
+	 * The number of the documents that are retrieved for every query.
+	 */
+	private int k;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param model The similarity.
+	 * @param first k1 for BM25 , mu for LM_DIRICHLET , nothing for DEFAULT.
+	 * @param second b for BM25 , nothing for the rest.
+	 * @param bigramBoost The boost of the bigrams.
+	 * @param k The number of the documents that are retrieved for every query.
+	 */
+	public Configuration(Model model , float first , float second , float bigramBoost , int k)
+	{
+		this.model = model;
+		this.first = first;
+		this.second = second;
+		this.bigramBoost = bigramBoost;
+		this.k = k;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns every combination of the given values : the DefaultSimilarity , BM25 with every k1 and b ,
+	 * and LM_DIRICHLET with every mu , each one with every boost of the bigrams and every k.
+	 *
+	 * @param k1s The values of k1 of BM25. If it is empty , BM25 is not tried.
+	 * @param bs The values of b of BM25.
+	 * @param mus The values of mu of LM_DIRICHLET. If it is empty , LM_DIRICHLET is not tried.
+	 * @param bigramBoosts The boosts of the bigrams.
+	 * @param ks The numbers of the retrieved documents.
+	 *
+	 * @return configurations The configurations.
+	 */
+	public static List<Configuration> grid(float[] k1s , float[] bs , float[] mus , float[] bigramBoosts , int[] ks)
+	{
+		List<Configuration> configurations = new ArrayList<Configuration>();
+		
+		for(float bigramBoost : bigramBoosts)
+		{
+			for(int k : ks)
+			{
+				configurations.add(new Configuration(Model.DEFAULT , 0 , 0 , bigramBoost , k));
+				
+				for(float k1 : k1s)
+				{
+					for(float b : bs)
+					{
+						configurations.add(new Configuration(Model.BM25 , k1 , b , bigramBoost , k));
+					}
+				}
+				
+				for(float mu : mus)
+				{
+					configurations.add(new Configuration(Model.LM_DIRICHLET , mu , 0 , bigramBoost , k));
+				}
+			}
+		}
+		
+		return configurations;
+	}
+	
+	
+	
+	
+	/**
+	 * Creates the similarity of the configuration. A similarity has no state , it can be shared by many searchers.
+	 *
+	 * @return similarity The similarity.
+	 */
+	public Similarity createSimilarity()
+	{
+		switch(this.model)
+		{
+			case BM25 : return new BM25Similarity(this.first , this.second);
+			case LM_DIRICHLET : return new LMDirichletSimilarity(this.first);
+			default : return new DefaultSimilarity();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * @return bigramBoost The boost of the bigrams.
+	 */
+	public float getBigramBoost()
+	{
+		return this.bigramBoost;
+	}
+	
+	
+	
+	
+	/**
+	 * @return k The number of the documents that are retrieved for every query.
+	 */
+	public int getK()
+	{
+		return this.k;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the similarity and its parameters , the boost of the bigrams and k , like "BM25 k1=1.2 b=0.75 boost=1 k=100".
+	 */
+	@Override
+	public String toString()
+	{
+		String similarity;
+		
+		switch(this.model)
+		{
+			case BM25 : similarity = String.format(Locale.ROOT , "BM25 k1=%s b=%s" , format(this.first) , format(this.second)); break;
+			case LM_DIRICHLET : similarity = String.format(Locale.ROOT , "LMDirichlet mu=%s" , format(this.first)); break;
+			default : similarity = "Default"; break;
+		}
+		
+		return similarity + " boost=" + format(this.bigramBoost) + " k=" + this.k;
+	}
+	
+	
+	
+	
+	/**
+	 * Formats a parameter without the zeros at the end.
+	 */
+	private static String format(float value)
+	{
+		return value == (int)value ? String.valueOf((int)value) : String.valueOf(value);
+	}
+}
\ No newline at end of file
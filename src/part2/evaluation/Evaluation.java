@@ -0,0 +1,199 @@
+package part2.evaluation;
+
+import java.util.Locale;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * The measures of a run , for every query and for all the queries , as they are computed by an Evaluator.
+ * toString() prints them in the format of Trec Eval , with the measures that Trec Eval prints by default
+ * (the ones of the .eval files) and nDCG at the end.
+ */
+public class Evaluation
+{
+	
+	/**
+	 * The names of the measures , in the order they are printed.
+	 */
+	public static final String[] MEASURES = {
+		"num_ret" , "num_rel" , "num_rel_ret" , "map" , "gm_map" , "Rprec" , "bpref" , "recip_rank" ,
+		"iprec_at_recall_0.00" , "iprec_at_recall_0.10" , "iprec_at_recall_0.20" , "iprec_at_recall_0.30" ,
+		"iprec_at_recall_0.40" , "iprec_at_recall_0.50" , "iprec_at_recall_0.60" , "iprec_at_recall_0.70" ,
+		"iprec_at_recall_0.80" , "iprec_at_recall_0.90" , "iprec_at_recall_1.00" ,
+		"P_5" , "P_10" , "P_15" , "P_20" , "P_30" , "P_100" , "P_200" , "P_500" , "P_1000" , "ndcg"
+	};
+	
+	/**
+	 * The positions of the measures in MEASURES. The measures before MAP are counts , they are summed instead of
+	 * averaged over the queries. IPREC and P are the first of the interpolated precisions and of the precisions.
+	 */
+	static final int NUM_RET = 0 , NUM_REL = 1 , NUM_REL_RET = 2 , MAP = 3 , GM_MAP = 4 , RPREC = 5 , BPREF = 6 ,
+			RECIP_RANK = 7 , IPREC = 8 , P = 19 , NDCG = 28;
+	
+	/**
+	 * The smallest average precision in the geometric mean , like Trec Eval.
+	 */
+	private static final double MIN_GEO_MEAN = 0.00001;
+	
+	/**
+	 * The tag of the run.
+	 */
+	private String runId;
+	
+	/**
+	 * The ids of the evaluated queries.
+	 */
+	private int[] queryIds;
+	
+	/**
+	 * The measures of every query , in the order of MEASURES.
+	 */
+	private double[][] values;
+	
+	/**
+	 * The measures for all the queries , in the order of MEASURES.
+	 */
+	private double[] summary;
+	
+	
+	
+	
+	/**
+	 * Constructor. Computes the measures for all the queries.
+	 *
+	 * @param runId The tag of the run.
+	 * @param queryIds The ids of the evaluated queries.
+	 * @param values The measures of every query.
+	 */
+	Evaluation(String runId , int[] queryIds , double[][] values)
+	{
+		this.runId = runId;
+		this.queryIds = queryIds;
+		this.values = values;
+		this.summary = new double[MEASURES.length];
+		
+		for(double[] query : values)
+		{
+			for(int m = 0; m < MEASURES.length; m++)
+			{
+				this.summary[m] += m == GM_MAP ? Math.log(Math.max(query[m] , MIN_GEO_MEAN)) : query[m];
+			}
+		}
+		
+		if(values.length > 0)
+		{
+			for(int m = MAP; m < MEASURES.length; m++)
+			{
+				this.summary[m] /= values.length;
+			}
+			
+			this.summary[GM_MAP] = Math.exp(this.summary[GM_MAP]);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the position of a measure in MEASURES.
+	 */
+	private static int indexOf(String measure)
+	{
+		for(int m = 0; m < MEASURES.length; m++)
+		{
+			if(MEASURES[m].equals(measure)) return m;
+		}
+		
+		throw new IllegalArgumentException("Unknown measure : " + measure);
+	}
+	
+	
+	
+	
+	/**
+	 * Returns a measure for all the queries.
+	 *
+	 * @param measure The name of the measure , one of MEASURES.
+	 *
+	 * @return value The sum of the counts , the geometric mean for gm_map , and the mean over the queries for the rest.
+	 */
+	public double get(String measure)
+	{
+		return this.summary[indexOf(measure)];
+	}
+	
+	
+	
+	
+	/**
+	 * Returns a measure for a query.
+	 *
+	 * @param measure The name of the measure , one of MEASURES.
+	 * @param query The number of the query , from 0 to getNumQueries() - 1.
+	 *
+	 * @return value The value of the measure.
+	 */
+	public double get(String measure , int query)
+	{
+		return this.values[query][indexOf(measure)];
+	}
+	
+	
+	
+	
+	/**
+	 * @return numQueries The number of the evaluated queries , the queries of the run that have judgments.
+	 */
+	public int getNumQueries()
+	{
+		return this.queryIds.length;
+	}
+	
+	
+	
+	
+	/**
+	 * @param query The number of the query , from 0 to getNumQueries() - 1.
+	 *
+	 * @return queryId The id of the query.
+	 */
+	public int getQueryId(int query)
+	{
+		return this.queryIds[query];
+	}
+	
+	
+	
+	
+	/**
+	 * @return runId The tag of the run.
+	 */
+	public String getRunId()
+	{
+		return this.runId;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the measures for all the queries , in the format of Trec Eval.
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append(String.format(Locale.ROOT , "%-22s\tall\t%s\n" , "runid" , this.runId));
+		sb.append(String.format(Locale.ROOT , "%-22s\tall\t%d\n" , "num_q" , this.queryIds.length));
+		
+		for(int m = 0; m < MEASURES.length; m++)
+		{
+			if(m < MAP) sb.append(String.format(Locale.ROOT , "%-22s\tall\t%d\n" , MEASURES[m] , (long)this.summary[m]));
+			else sb.append(String.format(Locale.ROOT , "%-22s\tall\t%.4f\n" , MEASURES[m] , this.summary[m]));
+		}
+		
+		return sb.toString();
+	}
+}
\ No newline at end of file
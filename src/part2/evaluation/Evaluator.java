@@ -0,0 +1,412 @@
+package part2.evaluation;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Evaluates a run with the relevance judgments of the queries , the way Trec Eval does , without running it :
+ * the results of every query are ordered by their score (and by their document , from the last to the first ,
+ * when the scores are the same) , only the first MAX_RESULTS are kept , and the queries of the run that have
+ * no judgments are skipped. The queries are evaluated in parallel , by a pool of threads that lives as long as
+ * the evaluator , so that a tuning loop can evaluate many runs without starting threads every time.
+ */
+public class Evaluator implements Closeable
+{
+	
+	/**
+	 * The number of the results of a query that are evaluated , like Trec Eval.
+	 */
+	public static final int MAX_RESULTS = 1000;
+	
+	/**
+	 * The levels of recall of the interpolated precision.
+	 */
+	private static final double[] RECALLS = {0.0 , 0.1 , 0.2 , 0.3 , 0.4 , 0.5 , 0.6 , 0.7 , 0.8 , 0.9 , 1.0};
+	
+	/**
+	 * The ranks of the precision measures.
+	 */
+	private static final int[] CUTOFFS = {5 , 10 , 15 , 20 , 30 , 100 , 200 , 500 , 1000};
+	
+	/**
+	 * The relevance judgments.
+	 */
+	private Qrels qrels;
+	
+	/**
+	 * The number of threads that evaluate the queries.
+	 */
+	private int threads;
+	
+	/**
+	 * The threads that evaluate the queries , or null if they are evaluated by the calling thread.
+	 */
+	private ExecutorService executor;
+	
+	
+	
+	
+	/**
+	 * Constructor. The queries are evaluated by as many threads as the processors.
+	 *
+	 * @param qrels The relevance judgments.
+	 */
+	public Evaluator(Qrels qrels)
+	{
+		this(qrels , Runtime.getRuntime().availableProcessors());
+	}
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param qrels The relevance judgments.
+	 * @param threads The number of threads that evaluate the queries.
+	 */
+	public Evaluator(Qrels qrels , int threads)
+	{
+		this.qrels = qrels;
+		this.threads = Math.max(1 , threads);
+		
+		if(this.threads > 1)
+		{
+			//Daemon threads , so that an evaluator that is not closed does not keep the JVM running.
+			this.executor = Executors.newFixedThreadPool(this.threads , new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable runnable)
+				{
+					Thread thread = new Thread(runnable , "evaluator");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Evaluates a run.
+	 *
+	 * @param run The run.
+	 *
+	 * @return evaluation The measures of the run.
+	 *
+	 * @throws Exception If the evaluation of a query failed.
+	 */
+	public Evaluation evaluate(final Run run) throws Exception
+	{
+		//The queries of the run that have judgments.
+		int[] found = new int[run.getNumQueries()];
+		int n = 0;
+		
+		for(int q = 0; q < run.getNumQueries(); q++)
+		{
+			if(this.qrels.get(run.getQueryId(q)) != null) found[n++] = q;
+		}
+		
+		final int[] queries = new int[n];
+		System.arraycopy(found , 0 , queries , 0 , n);
+		
+		final double[][] values = new double[n][Evaluation.MEASURES.length];
+		int tasks = this.executor == null ? 1 : Math.min(this.threads , n);
+		
+		if(tasks <= 1)
+		{
+			new EvaluationTask(run , queries , values , 0 , 1).call();
+		}
+		
+		else
+		{
+			//Every task evaluates every "tasks"-th query , starting from a different one.
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			
+			for(int t = 0; t < tasks; t++)
+			{
+				futures.add(this.executor.submit(new EvaluationTask(run , queries , values , t , tasks)));
+			}
+			
+			for(Future<Void> future : futures)
+			{
+				future.get();
+			}
+		}
+		
+		int[] queryIds = new int[n];
+		for(int i = 0; i < n; i++) queryIds[i] = run.getQueryId(queries[i]);
+		
+		return new Evaluation(run.getRunId() , queryIds , values);
+	}
+	
+	
+	
+	
+	/**
+	 * Stops the threads of the evaluator.
+	 */
+	@Override
+	public void close()
+	{
+		if(this.executor != null) this.executor.shutdown();
+	}
+	
+	
+	
+	
+	/**
+	 * A task that evaluates some of the queries of a run. It has its own buffers , and writes the measures
+	 * of every query to its own row , so the tasks share nothing that changes.
+	 */
+	private class EvaluationTask implements Callable<Void>
+	{
+		
+		/**
+		 * The run.
+		 */
+		private Run run;
+		
+		/**
+		 * The numbers of the queries of the run that are evaluated.
+		 */
+		private int[] queries;
+		
+		/**
+		 * The measures of every query.
+		 */
+		private double[][] values;
+		
+		/**
+		 * The first query of the task.
+		 */
+		private int first;
+		
+		/**
+		 * The distance between two queries of the task.
+		 */
+		private int step;
+		
+		/**
+		 * The positions of the results of a query , in the order of Trec Eval.
+		 */
+		private int[] order;
+		
+		/**
+		 * The relevance of the ordered results of a query.
+		 */
+		private int[] relevance;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 */
+		public EvaluationTask(Run run , int[] queries , double[][] values , int first , int step)
+		{
+			this.run = run;
+			this.queries = queries;
+			this.values = values;
+			this.first = first;
+			this.step = step;
+			this.order = new int[64];
+			this.relevance = new int[64];
+		}
+		
+		
+		
+		
+		@Override
+		public Void call()
+		{
+			for(int i = this.first; i < this.queries.length; i += this.step)
+			{
+				this.evaluate(this.queries[i] , this.values[i]);
+			}
+			
+			return null;
+		}
+		
+		
+		
+		
+		/**
+		 * Computes the measures of a query.
+		 */
+		private void evaluate(int query , double[] values)
+		{
+			Qrels.Judgments judgments = qrels.get(this.run.getQueryId(query));
+			int start = this.run.getStart(query);
+			int size = this.run.getEnd(query) - start;
+			
+			if(this.order.length < size)
+			{
+				this.order = new int[size];
+				this.relevance = new int[size];
+			}
+			
+			this.sort(start , size);
+			
+			int numRet = Math.min(size , MAX_RESULTS);
+			int numRel = judgments.getNumRelevant();
+			int numNonRel = judgments.getNumNonRelevant();
+			
+			for(int i = 0; i < numRet; i++)
+			{
+				this.relevance[i] = judgments.getRelevance(this.run.getDocId(this.order[i]));
+			}
+			
+			int relRet = 0;
+			int nonRelSoFar = 0;
+			int relAtR = 0;
+			double sumPrecision = 0;
+			double bpref = 0;
+			double recipRank = 0;
+			double gain = 0;
+			int c = 0;
+			
+			for(int i = 0; i < numRet; i++)
+			{
+				int rel = this.relevance[i];
+				
+				if(rel >= 1)
+				{
+					relRet++;
+					sumPrecision += (double)relRet / (i + 1);
+					if(recipRank == 0) recipRank = 1.0 / (i + 1);
+					if(i < numRel) relAtR++;
+					
+					//The judged not relevant documents that are ranked higher.
+					if(nonRelSoFar > 0) bpref += 1.0 - (double)Math.min(nonRelSoFar , numRel) / Math.min(numRel , numNonRel);
+					else bpref += 1.0;
+					
+					gain += Qrels.discount(rel , i);
+				}
+				
+				else if(rel >= 0)
+				{
+					nonRelSoFar++;
+				}
+				
+				//The precision at the ranks of CUTOFFS.
+				while(c < CUTOFFS.length && CUTOFFS[c] == i + 1)
+				{
+					values[Evaluation.P + c] = (double)relRet / CUTOFFS[c];
+					c++;
+				}
+			}
+			
+			for(; c < CUTOFFS.length; c++)
+			{
+				values[Evaluation.P + c] = (double)relRet / CUTOFFS[c];
+			}
+			
+			values[Evaluation.NUM_RET] = numRet;
+			values[Evaluation.NUM_REL] = numRel;
+			values[Evaluation.NUM_REL_RET] = relRet;
+			values[Evaluation.MAP] = numRel > 0 ? sumPrecision / numRel : 0;
+			values[Evaluation.GM_MAP] = values[Evaluation.MAP];
+			values[Evaluation.RPREC] = numRel > 0 ? (double)relAtR / numRel : 0;
+			values[Evaluation.BPREF] = numRel > 0 ? bpref / numRel : 0;
+			values[Evaluation.RECIP_RANK] = recipRank;
+			values[Evaluation.NDCG] = judgments.getIdealGain() > 0 ? gain / judgments.getIdealGain() : 0;
+			
+			this.interpolatedPrecision(numRet , numRel , relRet , values);
+		}
+		
+		
+		
+		
+		/**
+		 * Computes the interpolated precision at the levels of RECALLS , like Trec Eval : the precision at a level is the
+		 * highest precision at a rank where the recall is at least the level. The results are read from the last to the first.
+		 */
+		private void interpolatedPrecision(int numRet , int numRel , int relRet , double[] values)
+		{
+			int level = RECALLS.length - 1;
+			int relSoFar = relRet;
+			
+			//The levels that are higher than the recall of all the results are 0.
+			while(level >= 0 && RECALLS[level] > (double)relSoFar / numRel) level--;
+			
+			double precision = numRet > 0 ? (double)relSoFar / numRet : 0;
+			
+			for(int i = numRet; i > 0 && relSoFar > 0; i--)
+			{
+				precision = Math.max(precision , (double)relSoFar / i);
+				
+				//The levels above the recall of the previous relevant result get the highest precision from here to the end.
+				if(this.relevance[i - 1] >= 1)
+				{
+					double previous = (double)(relSoFar - 1) / numRel;
+					
+					while(level >= 0 && RECALLS[level] > previous)
+					{
+						values[Evaluation.IPREC + level] = precision;
+						level--;
+					}
+					
+					relSoFar--;
+				}
+			}
+			
+			for(; level >= 0; level--)
+			{
+				values[Evaluation.IPREC + level] = precision;
+			}
+		}
+		
+		
+		
+		
+		/**
+		 * Orders the results of a query like Trec Eval : by score from the highest to the lowest , and by the id of the
+		 * document (as text) from the last to the first when the scores are the same. The results are usually in
+		 * this order already , so an insertion sort takes linear time.
+		 */
+		private void sort(int start , int size)
+		{
+			for(int i = 0; i < size; i++)
+			{
+				int position = start + i;
+				int j = i;
+				
+				while(j > 0 && this.before(position , this.order[j - 1]))
+				{
+					this.order[j] = this.order[j - 1];
+					j--;
+				}
+				
+				this.order[j] = position;
+			}
+		}
+		
+		
+		
+		
+		/**
+		 * Returns true if the result at position a is ranked higher than the result at position b.
+		 */
+		private boolean before(int a , int b)
+		{
+			float scoreA = this.run.getScore(a);
+			float scoreB = this.run.getScore(b);
+			
+			if(scoreA != scoreB) return scoreA > scoreB;
+			
+			return Integer.toString(this.run.getDocId(a)).compareTo(Integer.toString(this.run.getDocId(b))) > 0;
+		}
+	}
+}
\ No newline at end of file
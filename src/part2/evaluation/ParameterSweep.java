@@ -0,0 +1,508 @@
+package part2.evaluation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+
+import part2.bigram_search.BigramQueryBuilder;
+import part2.bigram_search.BindexAnalyzer;
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+import part2.util.MedlarsIds;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Searches the queries with many configurations (see Configuration) and evaluates every one of them , to find the best
+ * similarity and parameters for an index. The index is opened once , and all the configurations search the same
+ * IndexReader concurrently , each with its own IndexSearcher and similarity. The queries are parsed once (once for
+ * every boost of the bigrams) before the sweep , and the results are kept in memory and evaluated by an Evaluator.
+ *
+ * The latency of a configuration is measured while the other configurations run , so it is only good to compare
+ * the configurations of the same sweep.
+ *
+ * Usage : ParameterSweep qrels [-bigrams] [-k1 list] [-b list] [-mu list] [-boost list] [-k list] [-threads N] [-sort measure] [-top N]
+ * The lists are separated by commas , like "-k1 0.9,1.2". "-k1 none" or "-mu none" leave BM25 or LMDirichlet out.
+ */
+public class ParameterSweep
+{
+	
+	/**
+	 * The reader of the index , shared by all the configurations.
+	 */
+	private IndexReader indexReader;
+	
+	/**
+	 * The field that we will be searching.
+	 */
+	private String searchField;
+	
+	/**
+	 * The queries.
+	 */
+	private List<MedlarsDocument> queries;
+	
+	/**
+	 * True if the index is the bigrams index , so that the bigrams of the queries are searched too.
+	 */
+	private boolean bigrams;
+	
+	/**
+	 * Evaluates the runs. Its queries are evaluated by the thread of the configuration , the configurations are already concurrent.
+	 */
+	private Evaluator evaluator;
+	
+	/**
+	 * The number of the configurations that run concurrently.
+	 */
+	private int threads;
+	
+	
+	
+	
+	/**
+	 * Constructor. Opens the index.
+	 *
+	 * @param indexLocation The folder that keeps the index.
+	 * @param searchField The field to search in.
+	 * @param queriesPath The path to the file that contains the queries.
+	 * @param qrels The relevance judgments of the queries.
+	 * @param bigrams True for the bigrams index.
+	 *
+	 * @throws IOException If the index can not be opened.
+	 */
+	public ParameterSweep(String indexLocation , String searchField , String queriesPath , Qrels qrels , boolean bigrams) throws IOException
+	{
+		this.indexReader = DirectoryReader.open(FSDirectory.open(new File(indexLocation)));
+		this.searchField = searchField;
+		this.queries = new MedlarsDocumentReader(queriesPath).getDocuments();
+		this.bigrams = bigrams;
+		this.evaluator = new Evaluator(qrels , 1);
+		this.threads = Runtime.getRuntime().availableProcessors();
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the number of the configurations that run concurrently.
+	 *
+	 * @param threads The number of threads.
+	 */
+	public void setThreads(int threads)
+	{
+		this.threads = Math.max(1 , threads);
+	}
+	
+	
+	
+	
+	/**
+	 * Searches and evaluates all the configurations.
+	 *
+	 * @param configurations The configurations.
+	 *
+	 * @return results The results of the configurations , in the same order.
+	 *
+	 * @throws Exception If a query can not be parsed , or a search failed.
+	 */
+	public List<Result> run(List<Configuration> configurations) throws Exception
+	{
+		//The queries of every boost of the bigrams.
+		Map<Float , Query[]> parsed = new HashMap<Float , Query[]>();
+		
+		for(Configuration configuration : configurations)
+		{
+			float boost = this.bigrams ? configuration.getBigramBoost() : 1;
+			if(!parsed.containsKey(boost)) parsed.put(boost , this.parse(boost));
+		}
+		
+		//Warm up the JVM , so that the first configurations are not slower.
+		Configuration first = configurations.get(0);
+		new SweepTask(first , parsed.get(this.bigrams ? first.getBigramBoost() : 1f)).call();
+		
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+		List<Future<Result>> futures = new ArrayList<Future<Result>>();
+		
+		for(Configuration configuration : configurations)
+		{
+			futures.add(executor.submit(new SweepTask(configuration , parsed.get(this.bigrams ? configuration.getBigramBoost() : 1f))));
+		}
+		
+		List<Result> results = new ArrayList<Result>();
+		
+		try
+		{
+			for(Future<Result> future : futures)
+			{
+				results.add(future.get());
+			}
+		}
+		
+		finally
+		{
+			executor.shutdown();
+		}
+		
+		return results;
+	}
+	
+	
+	
+	
+	/**
+	 * Parses the queries. The bigrams index gets the queries of a BigramQueryBuilder , with the given boost of the bigrams.
+	 */
+	private Query[] parse(float bigramBoost) throws Exception
+	{
+		Analyzer analyzer = new EnglishAnalyzer(Version.LUCENE_4_9);
+		QueryParser parser = new QueryParser(Version.LUCENE_4_9 , this.searchField , analyzer);
+		BigramQueryBuilder builder = null;
+		
+		if(this.bigrams)
+		{
+			builder = new BigramQueryBuilder(new BindexAnalyzer() , this.searchField);
+			builder.setBigramBoost(bigramBoost);
+		}
+		
+		Query[] parsed = new Query[this.queries.size()];
+		
+		for(int q = 0; q < parsed.length; q++)
+		{
+			String text = this.queries.get(q).getText();
+			parsed[q] = builder != null ? builder.build(text) : parser.parse(text);
+		}
+		
+		return parsed;
+	}
+	
+	
+	
+	
+	/**
+	 * Closes the index and stops the evaluator.
+	 */
+	public void close()
+	{
+		try
+		{
+			this.evaluator.close();
+			this.indexReader.close();
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Sorts the results by a measure , from the best to the worst.
+	 *
+	 * @param results The results.
+	 * @param measure The measure , one of Evaluation.MEASURES.
+	 */
+	public static void sort(List<Result> results , final String measure)
+	{
+		Collections.sort(results , new Comparator<Result>()
+		{
+			@Override
+			public int compare(Result a , Result b)
+			{
+				return Double.compare(b.getEvaluation().get(measure) , a.getEvaluation().get(measure));
+			}
+		});
+	}
+	
+	
+	
+	
+	/**
+	 * Prints a table of the results , in their order.
+	 *
+	 * @param results The results.
+	 * @param top The number of the results that are printed.
+	 */
+	public static void print(List<Result> results , int top)
+	{
+		System.out.println(String.format(Locale.ROOT , "%-5s %-7s %-7s %-7s %-7s %-7s %-9s %-9s %s" ,
+				"Rank" , "map" , "P_10" , "ndcg" , "Rprec" , "recip" , "avg us" , "p99 us" , "Configuration"));
+		
+		for(int i = 0; i < Math.min(top , results.size()); i++)
+		{
+			Result result = results.get(i);
+			Evaluation evaluation = result.getEvaluation();
+			
+			System.out.println(String.format(Locale.ROOT , "%-5d %.4f  %.4f  %.4f  %.4f  %.4f  %-9.1f %-9.1f %s" , i + 1 ,
+					evaluation.get("map") , evaluation.get("P_10") , evaluation.get("ndcg") , evaluation.get("Rprec") , evaluation.get("recip_rank") ,
+					result.getAverageMicros() , result.getP99Micros() , result.getConfiguration()));
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * The effectiveness and the latency of a configuration.
+	 */
+	public static class Result
+	{
+		
+		/**
+		 * The configuration.
+		 */
+		private Configuration configuration;
+		
+		/**
+		 * The evaluation of its results.
+		 */
+		private Evaluation evaluation;
+		
+		/**
+		 * The latency of every query in nanoseconds , from the lowest to the highest.
+		 */
+		private long[] latencies;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 */
+		private Result(Configuration configuration , Evaluation evaluation , long[] latencies)
+		{
+			this.configuration = configuration;
+			this.evaluation = evaluation;
+			this.latencies = latencies;
+			Arrays.sort(this.latencies);
+		}
+		
+		
+		
+		
+		/**
+		 * @return configuration The configuration.
+		 */
+		public Configuration getConfiguration()
+		{
+			return this.configuration;
+		}
+		
+		
+		
+		
+		/**
+		 * @return evaluation The evaluation of the results of the configuration.
+		 */
+		public Evaluation getEvaluation()
+		{
+			return this.evaluation;
+		}
+		
+		
+		
+		
+		/**
+		 * @return averageMicros The average latency of a query , in microseconds.
+		 */
+		public double getAverageMicros()
+		{
+			long total = 0;
+			for(long latency : this.latencies) total += latency;
+			
+			return this.latencies.length == 0 ? 0 : total / 1000.0 / this.latencies.length;
+		}
+		
+		
+		
+		
+		/**
+		 * @return p99Micros The 99th percentile of the latency of a query , in microseconds.
+		 */
+		public double getP99Micros()
+		{
+			return this.latencies.length == 0 ? 0 : this.latencies[(int)(this.latencies.length * 0.99)] / 1000.0;
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * A task that searches all the queries with a configuration and evaluates the results.
+	 */
+	private class SweepTask implements Callable<Result>
+	{
+		
+		/**
+		 * The configuration.
+		 */
+		private Configuration configuration;
+		
+		/**
+		 * The parsed queries.
+		 */
+		private Query[] parsed;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 */
+		public SweepTask(Configuration configuration , Query[] parsed)
+		{
+			this.configuration = configuration;
+			this.parsed = parsed;
+		}
+		
+		
+		
+		
+		@Override
+		public Result call() throws Exception
+		{
+			IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+			indexSearcher.setSimilarity(this.configuration.createSimilarity());
+			
+			//The doc values of the ids can not be read by many threads , so every task has its own.
+			MedlarsIds ids = new MedlarsIds(indexReader);
+			
+			Run run = new Run(this.configuration.toString());
+			long[] latencies = new long[this.parsed.length];
+			
+			for(int q = 0; q < this.parsed.length; q++)
+			{
+				long start = System.nanoTime();
+				ScoreDoc[] hits = indexSearcher.search(this.parsed[q] , this.configuration.getK()).scoreDocs;
+				latencies[q] = System.nanoTime() - start;
+				
+				int queryId = queries.get(q).getId();
+				
+				for(int i = 0; i < hits.length; i++)
+				{
+					run.write(queryId , ids.get(hits[i].doc) , i + 1 , hits[i].score);
+				}
+			}
+			
+			return new Result(this.configuration , evaluator.evaluate(run) , latencies);
+		}
+	}
+	
+	
+	
+	
+	public static void main(String[] args)
+	{
+		if(args.length < 1)
+		{
+			System.out.println("Usage : ParameterSweep qrels [-bigrams] [-k1 list] [-b list] [-mu list] [-boost list] [-k list] [-threads N] [-sort measure] [-top N]");
+			return;
+		}
+		
+		boolean bigrams = false;
+		float[] k1s = {0.6f , 0.9f , 1.2f , 1.5f , 2.0f};
+		float[] bs = {0.3f , 0.5f , 0.75f , 1.0f};
+		float[] mus = {250 , 500 , 1000 , 2000 , 3000};
+		float[] boosts = null;
+		int[] ks = {100};
+		int threads = Runtime.getRuntime().availableProcessors();
+		String measure = "map";
+		int top = 20;
+		
+		for(int i = 1; i < args.length; i++)
+		{
+			if(args[i].equals("-bigrams")) bigrams = true;
+			else if(i + 1 < args.length)
+			{
+				if(args[i].equals("-k1")) k1s = floats(args[++i]);
+				else if(args[i].equals("-b")) bs = floats(args[++i]);
+				else if(args[i].equals("-mu")) mus = floats(args[++i]);
+				else if(args[i].equals("-boost")) boosts = floats(args[++i]);
+				else if(args[i].equals("-k"))
+				{
+					float[] values = floats(args[++i]);
+					ks = new int[values.length];
+					for(int j = 0; j < values.length; j++) ks[j] = (int)values[j];
+				}
+				else if(args[i].equals("-threads")) threads = Integer.parseInt(args[++i]);
+				else if(args[i].equals("-sort")) measure = args[++i];
+				else if(args[i].equals("-top")) top = Integer.parseInt(args[++i]);
+			}
+		}
+		
+		//The boost of the bigrams matters only for the bigrams index.
+		if(boosts == null || !bigrams) boosts = bigrams ? new float[]{0.25f , 0.5f , 1 , 2} : new float[]{1};
+		
+		try
+		{
+			List<Configuration> configurations = Configuration.grid(k1s , bs , mus , boosts , ks);
+			
+			long start = System.currentTimeMillis();
+			
+			ParameterSweep sweep = new ParameterSweep(bigrams ? "index/index_bigrams" : "index/index_simple" , "text" , "medlars/MED.QRY" , new Qrels(args[0]) , bigrams);
+			sweep.setThreads(threads);
+			List<Result> results = sweep.run(configurations);
+			sweep.close();
+			
+			long end = System.currentTimeMillis();
+			
+			sort(results , measure);
+			print(results , top);
+			
+			System.out.println(configurations.size() + " configurations in " + (double)(end - start) / 1000 + " seconds , sorted by " + measure + ".");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Parses a list of numbers that are separated by commas. "none" is an empty list.
+	 */
+	private static float[] floats(String list)
+	{
+		if(list.equals("none")) return new float[0];
+		
+		String[] values = list.split(",");
+		float[] floats = new float[values.length];
+		
+		for(int i = 0; i < values.length; i++)
+		{
+			floats[i] = Float.parseFloat(values[i].trim());
+		}
+		
+		return floats;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,260 @@
+package part2.evaluation;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * The relevance judgments of the queries (qrels) , read once from a file in the format of Trec Eval :
+ * "query iteration document relevance" on every line , like MED.REL . A document is relevant to a query if its
+ * relevance is at least 1 , and judged not relevant if its relevance is 0 .
+ * The judgments do not change after they are read , so they can be shared by all the threads.
+ */
+public class Qrels
+{
+	
+	/**
+	 * The judgments of every query , by the id of the query.
+	 */
+	private Map<Integer , Judgments> queries;
+	
+	
+	
+	
+	/**
+	 * Constructor. Reads the judgments from a file.
+	 *
+	 * @param path The path of the qrels file.
+	 *
+	 * @throws IOException If the file can not be read , or a line is not valid.
+	 */
+	public Qrels(String path) throws IOException
+	{
+		this.queries = new HashMap<Integer , Judgments>();
+		
+		BufferedReader br = new BufferedReader(new FileReader(path));
+		
+		try
+		{
+			String line;
+			int number = 0;
+			
+			while((line = br.readLine()) != null)
+			{
+				number++;
+				line = line.trim();
+				if(line.isEmpty()) continue;
+				
+				String[] fields = line.split("\\s+");
+				
+				if(fields.length != 4) throw new IOException("Invalid line " + number + " of '" + path + "' : " + line);
+				
+				try
+				{
+					this.add(Integer.parseInt(fields[0]) , Integer.parseInt(fields[2]) , Integer.parseInt(fields[3]));
+				}
+				
+				catch(NumberFormatException e)
+				{
+					throw new IOException("Invalid line " + number + " of '" + path + "' : " + line);
+				}
+			}
+		}
+		
+		finally
+		{
+			br.close();
+		}
+		
+		for(Judgments judgments : this.queries.values())
+		{
+			judgments.computeIdealGain();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Adds the judgment of a document for a query.
+	 */
+	private void add(int queryId , int docId , int relevance)
+	{
+		Judgments judgments = this.queries.get(queryId);
+		
+		if(judgments == null)
+		{
+			judgments = new Judgments();
+			this.queries.put(queryId , judgments);
+		}
+		
+		judgments.relevance.put(docId , relevance);
+	}
+	
+	
+	
+	
+	/**
+	 * @return numQueries The number of the queries that have judgments.
+	 */
+	public int getNumQueries()
+	{
+		return this.queries.size();
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the judgments of a query.
+	 *
+	 * @param queryId The id of the query.
+	 *
+	 * @return judgments The judgments , or null if the query has none.
+	 */
+	Judgments get(int queryId)
+	{
+		return this.queries.get(queryId);
+	}
+	
+	
+	
+	
+	/**
+	 * The judgments of a query.
+	 */
+	static class Judgments
+	{
+		
+		/**
+		 * The relevance of every judged document , by its medlars id.
+		 */
+		private Map<Integer , Integer> relevance;
+		
+		/**
+		 * The number of the relevant documents.
+		 */
+		private int numRelevant;
+		
+		/**
+		 * The number of the documents that are judged not relevant.
+		 */
+		private int numNonRelevant;
+		
+		/**
+		 * The discounted cumulative gain of the best ranking of the relevant documents.
+		 */
+		private double idealGain;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 */
+		private Judgments()
+		{
+			this.relevance = new HashMap<Integer , Integer>();
+		}
+		
+		
+		
+		
+		/**
+		 * Counts the relevant documents and computes the gain of their best ranking , like the "ndcg" measure of Trec Eval.
+		 */
+		private void computeIdealGain()
+		{
+			int[] gains = new int[this.relevance.size()];
+			int n = 0;
+			
+			for(int rel : this.relevance.values())
+			{
+				if(rel >= 1) gains[n++] = rel;
+				else if(rel >= 0) this.numNonRelevant++;
+			}
+			
+			this.numRelevant = n;
+			
+			Arrays.sort(gains , 0 , n);
+			
+			for(int i = 0; i < n; i++)
+			{
+				this.idealGain += discount(gains[n - 1 - i] , i);
+			}
+		}
+		
+		
+		
+		
+		/**
+		 * Returns the relevance of a document.
+		 *
+		 * @param docId The medlars id of the document.
+		 *
+		 * @return relevance The relevance , or -1 if the document is not judged.
+		 */
+		int getRelevance(int docId)
+		{
+			Integer rel = this.relevance.get(docId);
+			
+			return rel == null ? -1 : rel;
+		}
+		
+		
+		
+		
+		/**
+		 * @return numRelevant The number of the relevant documents.
+		 */
+		int getNumRelevant()
+		{
+			return this.numRelevant;
+		}
+		
+		
+		
+		
+		/**
+		 * @return numNonRelevant The number of the documents that are judged not relevant.
+		 */
+		int getNumNonRelevant()
+		{
+			return this.numNonRelevant;
+		}
+		
+		
+		
+		
+		/**
+		 * @return idealGain The discounted cumulative gain of the best ranking of the relevant documents.
+		 */
+		double getIdealGain()
+		{
+			return this.idealGain;
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the discounted gain of a document at a rank , like Trec Eval : the first two ranks are not discounted ,
+	 * and the gain at every other rank is divided by the logarithm (base 2) of the rank.
+	 *
+	 * @param gain The relevance of the document.
+	 * @param index The rank of the document , starting from 0.
+	 *
+	 * @return gain The discounted gain.
+	 */
+	static double discount(int gain , int index)
+	{
+		return index == 0 ? gain : gain / (Math.log(index + 1) / Math.log(2));
+	}
+}
\ No newline at end of file
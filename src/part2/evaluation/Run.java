@@ -0,0 +1,405 @@
+package part2.evaluation;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import part2.util.BinaryRunReader;
+import part2.util.RunWriter;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * The results of the queries (a run) , kept in memory. A searcher writes its results to a Run like it writes them
+ * to a file , and an Evaluator evaluates them without touching the filesystem. The results are kept in arrays
+ * that grow when they are full , so a result is not an object.
+ *
+ * The results of a query do not have to be written together , like the lines of a run file for Trec Eval can be in any order.
+ * When they are not , the results are grouped by query , in the order the queries were first written , before they are read.
+ * A run can also be read from a file in the format of Trec Eval , or from a binary run (see BinaryRunWriter).
+ */
+public class Run implements RunWriter
+{
+	
+	/**
+	 * The tag of the run.
+	 */
+	private String runId;
+	
+	/**
+	 * The ids of the queries , in the order they were written. A query has more than one entry while the run is not grouped.
+	 */
+	private int[] queryIds;
+	
+	/**
+	 * The position of the first result of every query. The results of query i are from starts[i] up to starts[i + 1].
+	 */
+	private int[] starts;
+	
+	/**
+	 * The number of the entries of queryIds.
+	 */
+	private int numQueries;
+	
+	/**
+	 * The medlars ids of the documents of all the results.
+	 */
+	private int[] docIds;
+	
+	/**
+	 * The scores of all the results.
+	 */
+	private float[] scores;
+	
+	/**
+	 * The number of the results.
+	 */
+	private int size;
+	
+	/**
+	 * The ids of the queries that have been written , to find the results of a query that are not together.
+	 */
+	private Set<Integer> written;
+	
+	/**
+	 * True if the results of some query are not together , so they must be grouped before they are read.
+	 */
+	private boolean scattered;
+	
+	
+	
+	
+	/**
+	 * Constructor. The tag of the run is "STANDARD".
+	 */
+	public Run()
+	{
+		this("STANDARD");
+	}
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param runId The tag of the run.
+	 */
+	public Run(String runId)
+	{
+		this.runId = runId;
+		this.queryIds = new int[64];
+		this.starts = new int[65];
+		this.docIds = new int[1024];
+		this.scores = new float[1024];
+		this.written = new HashSet<Integer>();
+	}
+	
+	
+	
+	
+	/**
+	 * Reads a run from a file. A file with the extension ".run" is a binary run , any other file is in the format of Trec Eval.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @return run The run.
+	 *
+	 * @throws IOException If the file can not be read , or it is not valid.
+	 */
+	public static Run read(String path) throws IOException
+	{
+		if(path.endsWith(".run"))
+		{
+			Run run = new Run();
+			BinaryRunReader reader = new BinaryRunReader(path);
+			
+			try
+			{
+				while(reader.next())
+				{
+					run.write(reader.getQueryId() , reader.getDocId() , reader.getRank() , reader.getScore());
+				}
+			}
+			
+			finally
+			{
+				reader.close();
+			}
+			
+			return run;
+		}
+		
+		Run run = null;
+		BufferedReader br = new BufferedReader(new FileReader(path));
+		
+		try
+		{
+			String line;
+			int number = 0;
+			
+			while((line = br.readLine()) != null)
+			{
+				number++;
+				line = line.trim();
+				if(line.isEmpty()) continue;
+				
+				//query iteration document rank score tag
+				String[] fields = line.split("\\s+");
+				
+				if(fields.length != 6) throw new IOException("Invalid line " + number + " of '" + path + "' : " + line);
+				
+				if(run == null) run = new Run(fields[5]);
+				
+				try
+				{
+					run.write(Integer.parseInt(fields[0]) , Integer.parseInt(fields[2]) , Integer.parseInt(fields[3]) , Float.parseFloat(fields[4]));
+				}
+				
+				catch(NumberFormatException e)
+				{
+					throw new IOException("Invalid line " + number + " of '" + path + "' : " + line);
+				}
+			}
+		}
+		
+		finally
+		{
+			br.close();
+		}
+		
+		return run == null ? new Run() : run;
+	}
+	
+	
+	
+	
+	@Override
+	public void write(int queryId , int docId , int rank , float score) throws IOException
+	{
+		if(this.numQueries == 0 || this.queryIds[this.numQueries - 1] != queryId)
+		{
+			//A query that comes back gets a new entry for now.
+			if(!this.written.add(queryId)) this.scattered = true;
+			
+			if(this.numQueries == this.queryIds.length)
+			{
+				this.queryIds = Arrays.copyOf(this.queryIds , this.numQueries * 2);
+				this.starts = Arrays.copyOf(this.starts , this.numQueries * 2 + 1);
+			}
+			
+			this.queryIds[this.numQueries] = queryId;
+			this.starts[this.numQueries] = this.size;
+			this.numQueries++;
+		}
+		
+		if(this.size == this.docIds.length)
+		{
+			this.docIds = Arrays.copyOf(this.docIds , this.size * 2);
+			this.scores = Arrays.copyOf(this.scores , this.size * 2);
+		}
+		
+		this.docIds[this.size] = docId;
+		this.scores[this.size] = score;
+		this.size++;
+		this.starts[this.numQueries] = this.size;
+	}
+	
+	
+	
+	
+	/**
+	 * Does nothing , the results stay in memory.
+	 */
+	@Override
+	public void close()
+	{
+	}
+	
+	
+	
+	
+	/**
+	 * Removes all the results , so that the run can be written again.
+	 */
+	public void clear()
+	{
+		this.numQueries = 0;
+		this.size = 0;
+		this.starts[0] = 0;
+		this.written.clear();
+		this.scattered = false;
+	}
+	
+	
+	
+	
+	/**
+	 * Moves the results of every query together , keeping the order the queries were first written
+	 * and the order of the results of each query.
+	 */
+	private void group()
+	{
+		//The number of every query by its id , in the order they were first written , and the number of its results.
+		Map<Integer , Integer> numbers = new HashMap<Integer , Integer>();
+		int[] ids = new int[this.written.size()];
+		int[] starts = new int[ids.length + 1];
+		
+		for(int q = 0; q < this.numQueries; q++)
+		{
+			Integer number = numbers.get(this.queryIds[q]);
+			
+			if(number == null)
+			{
+				number = numbers.size();
+				numbers.put(this.queryIds[q] , number);
+				ids[number] = this.queryIds[q];
+			}
+			
+			starts[number + 1] += this.starts[q + 1] - this.starts[q];
+		}
+		
+		for(int q = 0; q < ids.length; q++)
+		{
+			starts[q + 1] += starts[q];
+		}
+		
+		//Copy the results of every entry after the results of the previous entries of the same query.
+		int[] docIds = new int[this.docIds.length];
+		float[] scores = new float[this.scores.length];
+		int[] next = Arrays.copyOf(starts , ids.length);
+		
+		for(int q = 0; q < this.numQueries; q++)
+		{
+			int number = numbers.get(this.queryIds[q]);
+			int length = this.starts[q + 1] - this.starts[q];
+			
+			System.arraycopy(this.docIds , this.starts[q] , docIds , next[number] , length);
+			System.arraycopy(this.scores , this.starts[q] , scores , next[number] , length);
+			next[number] += length;
+		}
+		
+		this.queryIds = ids;
+		this.starts = starts;
+		this.numQueries = ids.length;
+		this.docIds = docIds;
+		this.scores = scores;
+		this.scattered = false;
+	}
+	
+	
+	
+	
+	/**
+	 * @return runId The tag of the run.
+	 */
+	public String getRunId()
+	{
+		return this.runId;
+	}
+	
+	
+	
+	
+	/**
+	 * @return numQueries The number of the queries.
+	 */
+	public int getNumQueries()
+	{
+		if(this.scattered) this.group();
+		
+		return this.numQueries;
+	}
+	
+	
+	
+	
+	/**
+	 * @return size The number of all the results.
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+	
+	
+	
+	
+	/**
+	 * @param query The number of a query , from 0 to getNumQueries() - 1.
+	 *
+	 * @return queryId The id of the query.
+	 */
+	public int getQueryId(int query)
+	{
+		if(this.scattered) this.group();
+		
+		return this.queryIds[query];
+	}
+	
+	
+	
+	
+	/**
+	 * @param query The number of a query , from 0 to getNumQueries() - 1.
+	 *
+	 * @return start The position of the first result of the query.
+	 */
+	public int getStart(int query)
+	{
+		if(this.scattered) this.group();
+		
+		return this.starts[query];
+	}
+	
+	
+	
+	
+	/**
+	 * @param query The number of a query , from 0 to getNumQueries() - 1.
+	 *
+	 * @return end The position after the last result of the query.
+	 */
+	public int getEnd(int query)
+	{
+		if(this.scattered) this.group();
+		
+		return this.starts[query + 1];
+	}
+	
+	
+	
+	
+	/**
+	 * @param position The position of a result.
+	 *
+	 * @return docId The medlars id of the document of the result.
+	 */
+	public int getDocId(int position)
+	{
+		if(this.scattered) this.group();
+		
+		return this.docIds[position];
+	}
+	
+	
+	
+	
+	/**
+	 * @param position The position of a result.
+	 *
+	 * @return score The score of the result.
+	 */
+	public float getScore(int position)
+	{
+		if(this.scattered) this.group();
+		
+		return this.scores[position];
+	}
+}
\ No newline at end of file
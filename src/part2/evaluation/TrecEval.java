@@ -0,0 +1,46 @@
+package part2.evaluation;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Evaluates a run file with a qrels file and prints the measures in the format of Trec Eval , like
+ * "trec_eval qrels run" does. The run can be in the format of Trec Eval or a binary run (".run").
+ *
+ * Usage : TrecEval qrels run [threads]
+ */
+public class TrecEval
+{
+	public static void main(String[] args)
+	{
+		if(args.length < 2)
+		{
+			System.out.println("Usage : TrecEval qrels run [threads]");
+			return;
+		}
+		
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		
+		try
+		{
+			Qrels qrels = new Qrels(args[0]);
+			Run run = Run.read(args[1]);
+			
+			Evaluator evaluator = new Evaluator(qrels , threads);
+			
+			long start = System.nanoTime();
+			Evaluation evaluation = evaluator.evaluate(run);
+			long end = System.nanoTime();
+			
+			evaluator.close();
+			
+			System.out.print(evaluation);
+			System.err.println("Evaluated " + run.size() + " results in " + String.format("%.2f" , (end - start) / 1000000.0) + " ms.");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
\ No newline at end of file
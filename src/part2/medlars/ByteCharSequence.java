@@ -0,0 +1,108 @@
+package part2.medlars;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A read-only view of a range of bytes as a sequence of characters.
+ * No bytes are copied ; every byte is decoded to a character only when it is requested.
+ * The bytes are expected to be ASCII (or ISO-8859-1) , like the text of the medlars collection.
+ */
+public class ByteCharSequence implements CharSequence
+{
+	
+	/**
+	 * The buffer that holds the bytes.
+	 */
+	private ByteBuffer buffer;
+	
+	/**
+	 * The position of the first byte of the view in the buffer.
+	 */
+	private int start;
+	
+	/**
+	 * The position after the last byte of the view in the buffer.
+	 */
+	private int end;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param buffer The buffer that holds the bytes.
+	 * @param start The position of the first byte of the view.
+	 * @param end The position after the last byte of the view.
+	 */
+	public ByteCharSequence(ByteBuffer buffer , int start , int end)
+	{
+		this.buffer = buffer;
+		this.set(start, end);
+	}
+	
+	
+	
+	
+	/**
+	 * Moves the view to another range of the same buffer.
+	 * 
+	 * @param start The position of the first byte of the view.
+	 * @param end The position after the last byte of the view.
+	 */
+	void set(int start , int end)
+	{
+		this.start = start;
+		this.end = end;
+	}
+	
+	
+	
+	
+	@Override
+	public int length()
+	{
+		return this.end - this.start;
+	}
+	
+	
+	
+	
+	@Override
+	public char charAt(int index)
+	{
+		if(index < 0 || index >= this.length()) throw new IndexOutOfBoundsException(String.valueOf(index));
+		
+		return (char)(this.buffer.get(this.start + index) & 0xFF);
+	}
+	
+	
+	
+	
+	@Override
+	public CharSequence subSequence(int start , int end)
+	{
+		if(start < 0 || end > this.length() || start > end) throw new IndexOutOfBoundsException(start + " , " + end);
+		
+		return new ByteCharSequence(this.buffer , this.start + start , this.start + end);
+	}
+	
+	
+	
+	
+	@Override
+	public String toString()
+	{
+		char[] chars = new char[this.length()];
+		
+		for(int i = 0; i < chars.length; i++)
+		{
+			chars[i] = (char)(this.buffer.get(this.start + i) & 0xFF);
+		}
+		
+		return new String(chars);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,461 @@
+package part2.medlars;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class keeps a binary copy of a medlars collection that has already been parsed , so that
+ * the text file does not have to be parsed again on every run.
+ * 
+ * The cache file contains a header that describes the source file (size , last modification time and checksum) ,
+ * the ids of the documents in an int array , a table with the offset of every text and finally
+ * the UTF-8 texts of all the documents one after the other. The cache is created the first time the documents
+ * are requested and it is used for as long as the source file does not change. Otherwise it is created again.
+ * If the cache can not be created or read , the documents are parsed from the source file instead.
+ */
+public class CorpusCache implements Iterable<MedlarsDocument>
+{
+	
+	/**
+	 * The first bytes of every cache file ("MEDL").
+	 */
+	private static final int MAGIC = 0x4D45444C;
+	
+	/**
+	 * The version of the file format.
+	 */
+	private static final int VERSION = 1;
+	
+	/**
+	 * The encoding of the texts in the cache file.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	/**
+	 * The size of the buffers that are used to read and write files.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	/**
+	 * The path of the file that contains the medlars collection.
+	 */
+	private String sourceFile;
+	
+	/**
+	 * The path of the cache file.
+	 */
+	private String cacheFile;
+	
+	
+	
+	
+	/**
+	 * Constructor. The cache is kept next to the source file , with the extension ".cache".
+	 * 
+	 * @param sourcePath The path of the file that contains the medlars collection.
+	 */
+	public CorpusCache(String sourcePath)
+	{
+		this(sourcePath , sourcePath + ".cache");
+	}
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param sourcePath The path of the file that contains the medlars collection.
+	 * @param cachePath The path of the cache file.
+	 */
+	public CorpusCache(String sourcePath , String cachePath)
+	{
+		this.sourceFile = sourcePath;
+		this.cacheFile = cachePath;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns an iterator over the documents of the collection. If the cache is missing or the source
+	 * file has changed , the cache is created again before iterating. If it can not be created or opened ,
+	 * the documents are parsed from the source file , so a stale or empty cache is never returned.
+	 * 
+	 * @return An iterator that reads the documents from the cache file , or from the source file.
+	 */
+	@Override
+	public Iterator<MedlarsDocument> iterator()
+	{
+		if(this.isValid() || this.build())
+		{
+			try
+			{
+				return new CacheIterator();
+			}
+			
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+		}
+		
+		System.out.println("Reading the documents from '" + this.sourceFile + "' without the cache.");
+		
+		return new MedlarsDocumentReader(this.sourceFile).iterator();
+	}
+	
+	
+	
+	
+	/**
+	 * Tells us whether the cache file exists and was created from the current version of the source file.
+	 * 
+	 * @return true If the cache can be used , false otherwise.
+	 */
+	public boolean isValid()
+	{
+		File source = new File(this.sourceFile);
+		File cache = new File(this.cacheFile);
+		
+		if(!cache.isFile()) return false;
+		
+		try
+		{
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cache)));
+			
+			try
+			{
+				if(in.readInt() != MAGIC || in.readInt() != VERSION) return false;
+				
+				//Check the cheap properties first , so that the checksum is computed only if they match.
+				if(in.readLong() != source.length() || in.readLong() != source.lastModified()) return false;
+				
+				return in.readLong() == checksum(source);
+			}
+			
+			finally
+			{
+				in.close();
+			}
+		}
+		
+		catch(Exception e)
+		{
+			return false;
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Parses the source file and writes the cache file.
+	 * The texts are first written to a temporary file , so that the whole collection is never kept in memory.
+	 * If it fails , the old cache file is left as it was.
+	 * 
+	 * @return true If the cache file was created , false otherwise.
+	 */
+	public boolean build()
+	{
+		long start = System.currentTimeMillis();
+		
+		File source = new File(this.sourceFile);
+		File blob = new File(this.cacheFile + ".blob");
+		File tmp = new File(this.cacheFile + ".tmp");
+		
+		try
+		{
+			//The properties of the source are read before parsing , so that a change during parsing invalidates the cache.
+			long size = source.length();
+			long modified = source.lastModified();
+			long checksum = checksum(source);
+			
+			int count = 0;
+			int[] ids = new int[1024];
+			long[] offsets = new long[1025];
+			
+			//Write the texts and keep the ids and the offsets.
+			BufferedOutputStream blobOut = new BufferedOutputStream(new FileOutputStream(blob) , BUFFER_SIZE);
+			
+			for(MedlarsDocument doc : new MedlarsDocumentReader(this.sourceFile))
+			{
+				byte[] text = doc.getText().getBytes(UTF8);
+				blobOut.write(text);
+				
+				if(count == ids.length)
+				{
+					ids = Arrays.copyOf(ids , count * 2);
+					offsets = Arrays.copyOf(offsets , count * 2 + 1);
+				}
+				
+				ids[count] = doc.getId();
+				offsets[count + 1] = offsets[count] + text.length;
+				count++;
+			}
+			
+			blobOut.close();
+			
+			//Now write the whole cache file.
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp) , BUFFER_SIZE));
+			
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(size);
+			out.writeLong(modified);
+			out.writeLong(checksum);
+			out.writeInt(count);
+			
+			for(int i = 0; i < count; i++)
+			{
+				out.writeInt(ids[i]);
+			}
+			
+			for(int i = 0; i <= count; i++)
+			{
+				out.writeLong(offsets[i]);
+			}
+			
+			InputStream blobIn = new FileInputStream(blob);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			
+			while((read = blobIn.read(buffer)) > 0)
+			{
+				out.write(buffer , 0 , read);
+			}
+			
+			blobIn.close();
+			out.close();
+			
+			//Replace the old cache only when the new one is complete.
+			File cache = new File(this.cacheFile);
+			if(cache.exists() && !cache.delete()) throw new Exception("Could not delete '" + this.cacheFile + "'.");
+			if(!tmp.renameTo(cache)) throw new Exception("Could not rename '" + tmp + "' to '" + this.cacheFile + "'.");
+			
+			long end = System.currentTimeMillis();
+			System.out.println("Cached " + count + " documents to '" + this.cacheFile + "' in " + (double)(end-start)/(double)1000 + " seconds.");
+			
+			return true;
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+			
+			return false;
+		}
+		
+		finally
+		{
+			blob.delete();
+			tmp.delete();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Computes the CRC32 checksum of a file.
+	 * 
+	 * @param file The file.
+	 * 
+	 * @return The checksum of the file's bytes.
+	 * 
+	 * @throws Exception If the file can not be read.
+	 */
+	private static long checksum(File file) throws Exception
+	{
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		
+		InputStream in = new FileInputStream(file);
+		
+		try
+		{
+			int read;
+			
+			while((read = in.read(buffer)) > 0)
+			{
+				crc.update(buffer , 0 , read);
+			}
+		}
+		
+		finally
+		{
+			in.close();
+		}
+		
+		return crc.getValue();
+	}
+	
+	
+	
+	
+	/**
+	 * An iterator that reads the documents from the cache file one at a time.
+	 */
+	private class CacheIterator implements Iterator<MedlarsDocument>
+	{
+		
+		/**
+		 * The stream of the cache file. It is null when all the documents have been read.
+		 */
+		private DataInputStream in;
+		
+		/**
+		 * The ids of the documents.
+		 */
+		private int[] ids;
+		
+		/**
+		 * The offsets of the texts. The text of document i ends where the text of document i+1 begins.
+		 */
+		private long[] offsets;
+		
+		/**
+		 * The index of the document that will be returned by the next call of next().
+		 */
+		private int current;
+		
+		/**
+		 * A buffer for the bytes of a text. It is reused while the texts fit in it.
+		 */
+		private byte[] buffer;
+		
+		
+		
+		
+		/**
+		 * Constructor. Opens the cache file and reads the ids and the offsets.
+		 * 
+		 * @throws Exception If the cache file can not be read.
+		 */
+		public CacheIterator() throws Exception
+		{
+			this.buffer = new byte[BUFFER_SIZE];
+			this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(cacheFile)) , BUFFER_SIZE));
+			
+			try
+			{
+				//Skip the header , it has already been checked.
+				this.in.readInt();
+				this.in.readInt();
+				this.in.readLong();
+				this.in.readLong();
+				this.in.readLong();
+				
+				int count = this.in.readInt();
+				
+				this.ids = new int[count];
+				for(int i = 0; i < count; i++)
+				{
+					this.ids[i] = this.in.readInt();
+				}
+				
+				this.offsets = new long[count + 1];
+				for(int i = 0; i <= count; i++)
+				{
+					this.offsets[i] = this.in.readLong();
+				}
+			}
+			
+			catch(Exception e)
+			{
+				this.close();
+				throw e;
+			}
+			
+			if(this.ids.length == 0) this.close();
+		}
+		
+		
+		
+		
+		@Override
+		public boolean hasNext()
+		{
+			return this.in != null && this.current < this.ids.length;
+		}
+		
+		
+		
+		
+		@Override
+		public MedlarsDocument next()
+		{
+			if(!this.hasNext()) throw new NoSuchElementException();
+			
+			MedlarsDocument doc = null;
+			
+			try
+			{
+				int length = (int)(this.offsets[this.current + 1] - this.offsets[this.current]);
+				
+				if(length > this.buffer.length) this.buffer = new byte[length];
+				
+				this.in.readFully(this.buffer , 0 , length);
+				
+				doc = new MedlarsDocument(new String(this.buffer , 0 , length , UTF8) , this.ids[this.current]);
+			}
+			
+			catch(Exception e)
+			{
+				e.printStackTrace();
+				this.close();
+				throw new NoSuchElementException(e.getMessage());
+			}
+			
+			this.current++;
+			
+			if(this.current == this.ids.length) this.close();
+			
+			return doc;
+		}
+		
+		
+		
+		
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException("Documents can not be removed from the cache.");
+		}
+		
+		
+		
+		
+		/**
+		 * Closes the cache file.
+		 */
+		private void close()
+		{
+			try
+			{
+				if(this.in != null) this.in.close();
+			}
+			
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+			
+			this.in = null;
+		}
+	}
+}
\ No newline at end of file
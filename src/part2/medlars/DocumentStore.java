@@ -0,0 +1,552 @@
+package part2.medlars;
+
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class keeps all the documents of a collection in a few large arrays , instead of one
+ * MedlarsDocument object (and one String) for every document. The ids are kept in an int array
+ * and the texts one after the other in a single arena , with a table of offsets.
+ * While all the characters fit in one byte (ISO-8859-1 , as the medlars collection) the arena is a byte array ,
+ * otherwise it becomes a char array.
+ * 
+ * The documents are accessed through a View , which is a flyweight object that can be moved from
+ * document to document , so iterating over the store does not allocate anything.
+ */
+public class DocumentStore
+{
+	
+	/**
+	 * The encoding of the byte arena.
+	 */
+	private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+	
+	/**
+	 * The number of documents in the store.
+	 */
+	private int size;
+	
+	/**
+	 * The ids of the documents.
+	 */
+	private int[] ids;
+	
+	/**
+	 * The positions of the texts in the arena. The text of document i ends where the text of document i+1 begins.
+	 */
+	private int[] offsets;
+	
+	/**
+	 * The texts of all the documents , one byte for every character. It is null if some character does not fit in a byte.
+	 */
+	private byte[] bytes;
+	
+	/**
+	 * The texts of all the documents , when some character does not fit in a byte. Null otherwise.
+	 */
+	private char[] chars;
+	
+	
+	
+	
+	/**
+	 * Constructor. Creates an empty store.
+	 */
+	public DocumentStore()
+	{
+		this(1024 , 1 << 16);
+	}
+	
+	
+	
+	
+	/**
+	 * Constructor. Creates an empty store with the given initial capacity. The store still grows if it needs more.
+	 * 
+	 * @param documents The number of documents that fit in the store.
+	 * @param characters The number of characters that fit in the arena.
+	 */
+	public DocumentStore(int documents , int characters)
+	{
+		this.size = 0;
+		this.ids = new int[documents];
+		this.offsets = new int[documents + 1];
+		this.bytes = new byte[characters];
+	}
+	
+	
+	
+	
+	/**
+	 * Creates a store with all the given documents.
+	 * 
+	 * @param docs The documents , e.g. a MedlarsDocumentReader or a CorpusCache.
+	 * 
+	 * @return store A store with the documents in the same order.
+	 */
+	public static DocumentStore load(Iterable<MedlarsDocument> docs)
+	{
+		DocumentStore store = new DocumentStore();
+		
+		for(MedlarsDocument doc : docs)
+		{
+			store.add(doc.getId() , doc.getText());
+		}
+		
+		store.trim();
+		
+		return store;
+	}
+	
+	
+	
+	
+	/**
+	 * Adds a document at the end of the store.
+	 * 
+	 * @param id The id of the document.
+	 * @param text The text of the document.
+	 */
+	public void add(int id , CharSequence text)
+	{
+		if(this.size == this.ids.length)
+		{
+			//The capacity can be 0 after trim() on an empty store.
+			int capacity = Math.max(8 , 2 * this.ids.length);
+			
+			this.ids = Arrays.copyOf(this.ids , capacity);
+			this.offsets = Arrays.copyOf(this.offsets , capacity + 1);
+		}
+		
+		int start = this.offsets[this.size];
+		int length = text.length();
+		
+		if((long)start + length > Integer.MAX_VALUE) throw new IllegalStateException("The texts do not fit in a single arena.");
+		
+		this.ensureCapacity(start + length);
+		
+		for(int i = 0; i < length; i++)
+		{
+			char c = text.charAt(i);
+			
+			//Switch to a char arena as soon as a character does not fit in a byte.
+			if(this.chars == null && c > 0xFF) this.inflate();
+			
+			if(this.chars == null) this.bytes[start + i] = (byte)c;
+			else this.chars[start + i] = c;
+		}
+		
+		this.ids[this.size] = id;
+		this.offsets[this.size + 1] = start + length;
+		this.size++;
+	}
+	
+	
+	
+	
+	/**
+	 * Shrinks the arrays of the store to the size that they actually need.
+	 */
+	public void trim()
+	{
+		this.ids = Arrays.copyOf(this.ids , this.size);
+		this.offsets = Arrays.copyOf(this.offsets , this.size + 1);
+		if(this.chars == null) this.bytes = Arrays.copyOf(this.bytes , this.offsets[this.size]);
+		else this.chars = Arrays.copyOf(this.chars , this.offsets[this.size]);
+	}
+	
+	
+	
+	
+	/**
+	 * Removes all the documents , but keeps the arrays , so that the store can be filled again without allocating.
+	 */
+	public void clear()
+	{
+		this.size = 0;
+		this.offsets[0] = 0;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the number of documents in the store.
+	 * 
+	 * @return The number of documents.
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the id of a document.
+	 * 
+	 * @param index The position of the document in the store.
+	 * 
+	 * @return The id of the document.
+	 */
+	public int getId(int index)
+	{
+		return this.ids[index];
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the length of a document's text.
+	 * 
+	 * @param index The position of the document in the store.
+	 * 
+	 * @return The number of characters of the text.
+	 */
+	public int getLength(int index)
+	{
+		return this.offsets[index + 1] - this.offsets[index];
+	}
+	
+	
+	
+	
+	/**
+	 * Creates a new view , positioned before the first document.
+	 * Every thread that reads the store must use its own view.
+	 * 
+	 * @return A view of the store.
+	 */
+	public View view()
+	{
+		return new View();
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the approximate number of bytes that the arrays of the store occupy in the heap.
+	 * 
+	 * @return The size of the store in bytes.
+	 */
+	public long ramBytesUsed()
+	{
+		//Every array has a header of 16 bytes.
+		long arena = this.chars == null ? this.bytes.length : 2L * this.chars.length;
+		
+		return 3 * 16 + 4L * this.ids.length + 4L * this.offsets.length + arena;
+	}
+	
+	
+	
+	
+	/**
+	 * Makes sure that the arena can hold the given number of characters.
+	 */
+	private void ensureCapacity(int capacity)
+	{
+		int length = this.chars == null ? this.bytes.length : this.chars.length;
+		
+		if(capacity <= length) return;
+		
+		int newLength = (int)Math.min(Integer.MAX_VALUE , Math.max(2L * length , capacity));
+		
+		if(this.chars == null) this.bytes = Arrays.copyOf(this.bytes , newLength);
+		else this.chars = Arrays.copyOf(this.chars , newLength);
+	}
+	
+	
+	
+	
+	/**
+	 * Copies the byte arena to a char arena.
+	 */
+	private void inflate()
+	{
+		this.chars = new char[this.bytes.length];
+		
+		for(int i = 0; i < this.bytes.length; i++)
+		{
+			this.chars[i] = (char)(this.bytes[i] & 0xFF);
+		}
+		
+		this.bytes = null;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the character at a position of the arena.
+	 */
+	private char charAt(int pos)
+	{
+		return this.chars == null ? (char)(this.bytes[pos] & 0xFF) : this.chars[pos];
+	}
+	
+	
+	
+	
+	/**
+	 * Copies a range of the arena to a char array.
+	 */
+	private void copy(int from , char[] dest , int destPos , int length)
+	{
+		if(this.chars != null)
+		{
+			System.arraycopy(this.chars , from , dest , destPos , length);
+			return;
+		}
+		
+		for(int i = 0; i < length; i++)
+		{
+			dest[destPos + i] = (char)(this.bytes[from + i] & 0xFF);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * A flyweight view of one document of the store. The view is also the text of the document.
+	 */
+	public class View implements CharSequence
+	{
+		
+		/**
+		 * The position of the current document in the store.
+		 */
+		private int index;
+		
+		/**
+		 * The position of the current document's text in the arena.
+		 */
+		private int start;
+		
+		/**
+		 * The position after the end of the current document's text in the arena.
+		 */
+		private int end;
+		
+		/**
+		 * A reader of the current text. It is reused for every document.
+		 */
+		private TextReader reader;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 */
+		private View()
+		{
+			this.index = -1;
+			this.reader = new TextReader();
+		}
+		
+		
+		
+		
+		/**
+		 * Moves the view to the next document.
+		 * 
+		 * @return true If there is a next document , false otherwise.
+		 */
+		public boolean next()
+		{
+			if(this.index + 1 >= size) return false;
+			
+			this.moveTo(this.index + 1);
+			
+			return true;
+		}
+		
+		
+		
+		
+		/**
+		 * Moves the view to a document.
+		 * 
+		 * @param index The position of the document in the store.
+		 */
+		public void moveTo(int index)
+		{
+			if(index < 0 || index >= size) throw new IndexOutOfBoundsException(String.valueOf(index));
+			
+			this.index = index;
+			this.start = offsets[index];
+			this.end = offsets[index + 1];
+		}
+		
+		
+		
+		
+		/**
+		 * Returns the position of the current document in the store.
+		 * 
+		 * @return The index of the document.
+		 */
+		public int getIndex()
+		{
+			return this.index;
+		}
+		
+		
+		
+		
+		/**
+		 * Returns the id of the current document.
+		 * 
+		 * @return The id of the document.
+		 */
+		public int getId()
+		{
+			return ids[this.index];
+		}
+		
+		
+		
+		
+		/**
+		 * Returns a reader of the current document's text. The same reader is returned
+		 * for every document , so it must be consumed before the view is moved.
+		 * 
+		 * @return A reader of the text.
+		 */
+		public Reader reader()
+		{
+			this.reader.reset(this.start , this.end);
+			
+			return this.reader;
+		}
+		
+		
+		
+		
+		/**
+		 * Copies the text of the current document to a char array.
+		 * 
+		 * @param dest The array.
+		 * @param destPos The position of the array where the text will be copied.
+		 */
+		public void getChars(char[] dest , int destPos)
+		{
+			copy(this.start , dest , destPos , this.end - this.start);
+		}
+		
+		
+		
+		
+		@Override
+		public int length()
+		{
+			return this.end - this.start;
+		}
+		
+		
+		
+		
+		@Override
+		public char charAt(int i)
+		{
+			if(i < 0 || i >= this.length()) throw new IndexOutOfBoundsException(String.valueOf(i));
+			
+			return DocumentStore.this.charAt(this.start + i);
+		}
+		
+		
+		
+		
+		@Override
+		public CharSequence subSequence(int from , int to)
+		{
+			return this.toString().subSequence(from , to);
+		}
+		
+		
+		
+		
+		@Override
+		public String toString()
+		{
+			if(chars == null) return new String(bytes , this.start , this.end - this.start , LATIN1);
+			
+			return new String(chars , this.start , this.end - this.start);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * A reader of a range of the arena , that can be reset to another range.
+	 */
+	private class TextReader extends Reader
+	{
+		
+		/**
+		 * The position of the next char that will be read.
+		 */
+		private int pos;
+		
+		/**
+		 * The position after the end of the range.
+		 */
+		private int end;
+		
+		
+		
+		
+		/**
+		 * Moves the reader to a new range.
+		 */
+		void reset(int start , int end)
+		{
+			this.pos = start;
+			this.end = end;
+		}
+		
+		
+		
+		
+		@Override
+		public int read(char[] cbuf , int off , int len)
+		{
+			if(len == 0) return 0;
+			
+			if(this.pos >= this.end) return -1;
+			
+			int n = Math.min(len , this.end - this.pos);
+			copy(this.pos , cbuf , off , n);
+			this.pos += n;
+			
+			return n;
+		}
+		
+		
+		
+		
+		@Override
+		public int read()
+		{
+			return this.pos < this.end ? DocumentStore.this.charAt(this.pos++) : -1;
+		}
+		
+		
+		
+		
+		@Override
+		public void close()
+		{
+			//Nothing to close , the store remains open.
+		}
+	}
+}
\ No newline at end of file
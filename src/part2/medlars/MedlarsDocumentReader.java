@@ -1,120 +1,260 @@
-package part2.medlars;
-
-
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.List;
-
-
-/**
- * @author Stamatis Pitsios
- *
- * This class provides the necessary methods to read all the documents or queries of medlars collection.
- */
-public class MedlarsDocumentReader 
-{
-	
-	/**
-	 * The name of the file that contains medlars collection.
-	 */
-	private String fileName;
-	
-	
-	
-	
-	/**
-	 * Constructor 
-	 * 
-	 * @param path The path of the file that contains the medlars documents.
-	 */
-	public MedlarsDocumentReader(String path)
-	{
-		this.fileName = path;
-	}
-	
-	
-	
-	
-	/**
-	 * Finds and returns a list with all the documents of medlars collection.
-	 * 
-	 * @return docs A list with all the MedlarsDocument objects.
-	 */
-	public List<MedlarsDocument> getDocuments()
-	{
-		List<MedlarsDocument> docs = new ArrayList<MedlarsDocument>();
-		
-		try
-		{
-			BufferedReader br = new BufferedReader(new FileReader(new File(this.fileName)));
-			
-			//A line read from the file.
-			String line = null;
-			
-			//The text of a document.
-			String docText = "";
-			
-			//The id of a document.
-			int docID = -1;
-			
-			//Indicates if we are parsing through the text of a document.
-			boolean parsingText = false;
-			
-			while( (line = br.readLine()) != null  )
-			{
-				//Remove all white space characters from line.
-				String trimmed = line.trim();
-				
-				//If it is an empty line , continue.
-				if(trimmed.equals("")) continue;
-				
-				//Else, if line indicates the begin of a new document.
-				else if(trimmed.startsWith(".I"))
-				{
-					if(parsingText)
-					{
-						docs.add(new MedlarsDocument(docText, docID));
-						parsingText = false;
-						docID = -1;
-						docText = "";
-					}
-					
-					docID = Integer.parseInt(trimmed.substring(2).trim());
-				}
-				
-				//Else, if the line indicates the begin of the text , change the associate flag. 
-				else if(trimmed.startsWith(".W"))
-				{
-					parsingText = true;
-				}
-				
-				else
-				{
-					if(parsingText)
-					{
-						docText += line+"\n";
-					}
-				}
-			}
-			
-			br.close();
-			
-			if(parsingText)
-			{
-				docs.add(new MedlarsDocument(docText, docID));
-				parsingText = false;
-				docID = -1;
-				docText = "";
-			}
-		}
-		
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-		
-		return docs;
-	}
+package part2.medlars;
+
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class provides the necessary methods to read all the documents or queries of medlars collection.
+ * 
+ * The documents can either be loaded all at once with getDocuments() , or be streamed one at a time
+ * by iterating over the reader. The streaming mode keeps only the current document in memory.
+ */
+public class MedlarsDocumentReader implements Iterable<MedlarsDocument>
+{
+	
+	/**
+	 * The name of the file that contains medlars collection.
+	 */
+	private String fileName;
+	
+	
+	
+	
+	/**
+	 * Constructor 
+	 * 
+	 * @param path The path of the file that contains the medlars documents.
+	 */
+	public MedlarsDocumentReader(String path)
+	{
+		this.fileName = path;
+	}
+	
+	
+	
+	
+	/**
+	 * Finds and returns a list with all the documents of medlars collection.
+	 * 
+	 * @return docs A list with all the MedlarsDocument objects.
+	 */
+	public List<MedlarsDocument> getDocuments()
+	{
+		List<MedlarsDocument> docs = new ArrayList<MedlarsDocument>();
+		
+		for(MedlarsDocument doc : this)
+		{
+			docs.add(doc);
+		}
+		
+		return docs;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns an iterator that parses the file lazily , one .I/.W record at a time.
+	 * The underlying file is closed as soon as the last document has been returned.
+	 * 
+	 * @return An iterator over the documents of the file.
+	 */
+	@Override
+	public Iterator<MedlarsDocument> iterator()
+	{
+		return new DocumentIterator();
+	}
+	
+	
+	
+	
+	/**
+	 * An iterator that reads the next document from the file only when it is requested.
+	 */
+	private class DocumentIterator implements Iterator<MedlarsDocument>
+	{
+		
+		/**
+		 * The reader of the file. It is null when the end of the file has been reached.
+		 */
+		private BufferedReader br;
+		
+		/**
+		 * The document that will be returned by the next call of next().
+		 */
+		private MedlarsDocument nextDoc;
+		
+		/**
+		 * The id that was found in the last .I line , that belongs to the document that follows.
+		 */
+		private int pendingID;
+		
+		
+		
+		
+		/**
+		 * Constructor. Opens the file and parses the first document.
+		 */
+		public DocumentIterator()
+		{
+			this.pendingID = -1;
+			
+			try
+			{
+				this.br = new BufferedReader(new FileReader(new File(fileName)));
+				this.nextDoc = this.readDocument();
+			}
+			
+			catch(Exception e)
+			{
+				e.printStackTrace();
+				this.close();
+			}
+		}
+		
+		
+		
+		
+		@Override
+		public boolean hasNext()
+		{
+			return this.nextDoc != null;
+		}
+		
+		
+		
+		
+		@Override
+		public MedlarsDocument next()
+		{
+			if(this.nextDoc == null) throw new NoSuchElementException();
+			
+			MedlarsDocument doc = this.nextDoc;
+			
+			try
+			{
+				this.nextDoc = this.readDocument();
+			}
+			
+			catch(Exception e)
+			{
+				e.printStackTrace();
+				this.nextDoc = null;
+				this.close();
+			}
+			
+			return doc;
+		}
+		
+		
+		
+		
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException("Documents can not be removed from the file.");
+		}
+		
+		
+		
+		
+		/**
+		 * Reads lines from the file until a whole document has been parsed.
+		 * 
+		 * @return The next document of the file , or null if there are no more documents.
+		 * 
+		 * @throws Exception If an error occurs while reading the file.
+		 */
+		private MedlarsDocument readDocument() throws Exception
+		{
+			if(this.br == null) return null;
+			
+			//A line read from the file.
+			String line = null;
+			
+			//The text of the document.
+			StringBuilder docText = new StringBuilder();
+			
+			//The id of the document.
+			int docID = this.pendingID;
+			
+			//Indicates if we are parsing through the text of a document.
+			boolean parsingText = false;
+			
+			while( (line = this.br.readLine()) != null  )
+			{
+				//Remove all white space characters from line.
+				String trimmed = line.trim();
+				
+				//If it is an empty line , continue.
+				if(trimmed.equals("")) continue;
+				
+				//Else, if line indicates the begin of a new document.
+				else if(trimmed.startsWith(".I"))
+				{
+					int id = Integer.parseInt(trimmed.substring(2).trim());
+					
+					//The current document is complete , keep the new id for the next call.
+					if(parsingText)
+					{
+						this.pendingID = id;
+						return new MedlarsDocument(docText.toString(), docID);
+					}
+					
+					docID = id;
+				}
+				
+				//Else, if the line indicates the begin of the text , change the associate flag. 
+				else if(trimmed.startsWith(".W"))
+				{
+					parsingText = true;
+				}
+				
+				else
+				{
+					if(parsingText)
+					{
+						docText.append(line).append('\n');
+					}
+				}
+			}
+			
+			//End of file , so there are no more documents after this one.
+			this.close();
+			
+			if(parsingText) return new MedlarsDocument(docText.toString(), docID);
+			
+			return null;
+		}
+		
+		
+		
+		
+		/**
+		 * Closes the file.
+		 */
+		private void close()
+		{
+			try
+			{
+				if(this.br != null) this.br.close();
+			}
+			
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+			
+			this.br = null;
+		}
+	}
 }
\ No newline at end of file
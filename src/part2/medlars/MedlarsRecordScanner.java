@@ -0,0 +1,400 @@
+package part2.medlars;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class scans a medlars collection file that has been mapped in memory , without creating
+ * a String for every line like MedlarsDocumentReader does. The .I and .W markers are found directly
+ * in the mapped bytes , and for every record only its id and the offsets of its text are kept.
+ * The text itself is returned as a CharSequence view that decodes the bytes only when they are read.
+ * 
+ * The text of a record is the range of bytes between the .W line and the next .I line , so unlike
+ * MedlarsDocumentReader , any blank lines and line terminators inside the text are kept.
+ */
+public class MedlarsRecordScanner
+{
+	
+	/**
+	 * The bytes of the collection.
+	 */
+	private ByteBuffer buffer;
+	
+	/**
+	 * The position in the buffer where the scanning will continue.
+	 */
+	private int position;
+	
+	/**
+	 * The id of the current record.
+	 */
+	private int id;
+	
+	/**
+	 * The position of the first byte of the current record's text.
+	 */
+	private int textStart;
+	
+	/**
+	 * The position after the last byte of the current record's text.
+	 */
+	private int textEnd;
+	
+	/**
+	 * A view of the current record's text. It is reused for every record.
+	 */
+	private ByteCharSequence text;
+	
+	
+	
+	
+	/**
+	 * Constructor. Maps the whole file in memory.
+	 * 
+	 * @param path The path of the file that contains the medlars documents.
+	 * 
+	 * @throws IOException If the file can not be mapped.
+	 */
+	public MedlarsRecordScanner(String path) throws IOException
+	{
+		this(map(path));
+	}
+	
+	
+	
+	
+	/**
+	 * Constructor. Scans the bytes between the position and the limit of the given buffer.
+	 * 
+	 * @param buffer The bytes of the collection.
+	 */
+	public MedlarsRecordScanner(ByteBuffer buffer)
+	{
+		this.buffer = buffer;
+		this.text = new ByteCharSequence(buffer , 0 , 0);
+		this.reset();
+	}
+	
+	
+	
+	
+	/**
+	 * Maps a file in memory as read only.
+	 * 
+	 * @param path The path of the file.
+	 * 
+	 * @return The mapped bytes of the file.
+	 * 
+	 * @throws IOException If the file can not be mapped.
+	 */
+	public static MappedByteBuffer map(String path) throws IOException
+	{
+		RandomAccessFile file = new RandomAccessFile(new File(path) , "r");
+		
+		try
+		{
+			FileChannel channel = file.getChannel();
+			
+			if(channel.size() > Integer.MAX_VALUE) throw new IOException("File '" + path + "' is too large to be mapped.");
+			
+			//The mapping stays valid after the channel is closed.
+			return channel.map(FileChannel.MapMode.READ_ONLY , 0 , channel.size());
+		}
+		
+		finally
+		{
+			file.close();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Moves the scanner back to the beginning of the buffer.
+	 */
+	public void reset()
+	{
+		this.position = this.buffer.position();
+		this.id = -1;
+		this.textStart = 0;
+		this.textEnd = 0;
+		this.text.set(0, 0);
+	}
+	
+	
+	
+	
+	/**
+	 * Moves to the next record that has a text.
+	 * 
+	 * @return true If a record was found , false if the end of the buffer was reached.
+	 */
+	public boolean next()
+	{
+		int limit = this.buffer.limit();
+		
+		//The id of the last .I line.
+		int docID = -1;
+		
+		//The start of the text , or -1 if no .W line has been found yet.
+		int start = -1;
+		
+		while(this.position < limit)
+		{
+			int lineStart = this.position;
+			int lineEnd = this.endOfLine(lineStart);
+			int nextLine = lineEnd < limit ? lineEnd + 1 : limit;
+			
+			char marker = this.markerOf(lineStart , lineEnd);
+			
+			if(marker == 'I')
+			{
+				//The current record is complete. Leave the .I line for the next call.
+				if(start >= 0)
+				{
+					this.setRecord(docID , start , lineStart);
+					return true;
+				}
+				
+				docID = this.parseID(lineStart , lineEnd);
+			}
+			
+			else if(marker == 'W' && start < 0)
+			{
+				start = nextLine;
+			}
+			
+			this.position = nextLine;
+		}
+		
+		if(start >= 0)
+		{
+			this.setRecord(docID , start , limit);
+			return true;
+		}
+		
+		return false;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the id of the current record.
+	 * 
+	 * @return The id of the current record.
+	 */
+	public int getId()
+	{
+		return this.id;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the position of the first byte of the current record's text.
+	 * 
+	 * @return The offset of the text in the buffer.
+	 */
+	public int getTextStart()
+	{
+		return this.textStart;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the position after the last byte of the current record's text.
+	 * 
+	 * @return The end offset of the text in the buffer.
+	 */
+	public int getTextEnd()
+	{
+		return this.textEnd;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns a view of the current record's text. The same object is returned for every record ,
+	 * so the view is only valid until the next call of next().
+	 * 
+	 * @return The text of the current record.
+	 */
+	public CharSequence getText()
+	{
+		return this.text;
+	}
+	
+	
+	
+	
+	/**
+	 * Decodes the current record into a new MedlarsDocument. The text is the same as the one that
+	 * MedlarsDocumentReader gives , i.e. blank lines are skipped and every line ends with '\n'.
+	 * 
+	 * @return The current record as a MedlarsDocument object.
+	 */
+	public MedlarsDocument toDocument()
+	{
+		StringBuilder docText = new StringBuilder(this.textEnd - this.textStart);
+		
+		int pos = this.textStart;
+		
+		while(pos < this.textEnd)
+		{
+			int lineEnd = Math.min(this.endOfLine(pos) , this.textEnd);
+			
+			//Leave out the '\r' of a "\r\n" line terminator.
+			int contentEnd = lineEnd;
+			if(contentEnd > pos && this.buffer.get(contentEnd - 1) == '\r') contentEnd--;
+			
+			//Skip empty lines and any repeated .W line.
+			if(this.skipWhiteSpace(pos , contentEnd) < contentEnd && this.markerOf(pos , contentEnd) != 'W')
+			{
+				for(int i = pos; i < contentEnd; i++)
+				{
+					docText.append((char)(this.buffer.get(i) & 0xFF));
+				}
+				
+				docText.append('\n');
+			}
+			
+			pos = lineEnd + 1;
+		}
+		
+		return new MedlarsDocument(docText.toString() , this.id);
+	}
+	
+	
+	
+	
+	/**
+	 * Finds the start of the first line that begins with a .I marker , at or after the given position.
+	 * 
+	 * @param buffer The bytes of the collection.
+	 * @param from A position in the buffer.
+	 * 
+	 * @return The position of the line , or the limit of the buffer if there is no such line.
+	 */
+	public static int findRecordStart(ByteBuffer buffer , int from)
+	{
+		MedlarsRecordScanner scanner = new MedlarsRecordScanner(buffer);
+		int limit = buffer.limit();
+		
+		//Move to the beginning of the next line , unless we are already there.
+		int pos = from;
+		if(pos > buffer.position() && pos < limit && buffer.get(pos - 1) != '\n') pos = scanner.endOfLine(pos) + 1;
+		
+		while(pos < limit)
+		{
+			int lineEnd = scanner.endOfLine(pos);
+			
+			if(scanner.markerOf(pos , lineEnd) == 'I') return pos;
+			
+			pos = lineEnd + 1;
+		}
+		
+		return limit;
+	}
+	
+	
+	
+	
+	/**
+	 * Keeps the id and the offsets of the record that was just found.
+	 */
+	private void setRecord(int docID , int start , int end)
+	{
+		this.id = docID;
+		this.textStart = start;
+		this.textEnd = Math.max(start , end);
+		this.text.set(this.textStart , this.textEnd);
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the position of the '\n' that ends the line , or the limit of the buffer.
+	 */
+	private int endOfLine(int pos)
+	{
+		int limit = this.buffer.limit();
+		
+		while(pos < limit && this.buffer.get(pos) != '\n') pos++;
+		
+		return pos;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns 'I' or 'W' if the line starts with the associate marker (after any white space) , 0 otherwise.
+	 */
+	private char markerOf(int lineStart , int lineEnd)
+	{
+		int pos = this.skipWhiteSpace(lineStart , lineEnd);
+		
+		if(pos + 1 >= lineEnd || this.buffer.get(pos) != '.') return 0;
+		
+		byte b = this.buffer.get(pos + 1);
+		
+		if(b == 'I' || b == 'W') return (char)b;
+		
+		return 0;
+	}
+	
+	
+	
+	
+	/**
+	 * Parses the number that follows the .I marker of a line.
+	 */
+	private int parseID(int lineStart , int lineEnd)
+	{
+		int pos = this.skipWhiteSpace(this.skipWhiteSpace(lineStart , lineEnd) + 2 , lineEnd);
+		
+		int value = 0;
+		boolean found = false;
+		
+		while(pos < lineEnd)
+		{
+			byte b = this.buffer.get(pos++);
+			
+			if(b < '0' || b > '9') break;
+			
+			value = value * 10 + (b - '0');
+			found = true;
+		}
+		
+		if(!found) throw new NumberFormatException("Invalid .I line at position " + lineStart);
+		
+		return value;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the position of the first byte that is not white space.
+	 */
+	private int skipWhiteSpace(int pos , int end)
+	{
+		while(pos < end && (this.buffer.get(pos) & 0xFF) <= ' ') pos++;
+		
+		return pos;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+package part2.medlars;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class reads all the documents of a medlars collection file using many threads.
+ * The file is mapped in memory and split in chunks at the .I lines , so that every chunk
+ * contains only whole records. The chunks are parsed in parallel on a fork-join pool and the
+ * documents are returned in the same order as in the file , exactly as MedlarsDocumentReader returns them.
+ */
+public class ParallelMedlarsDocumentReader
+{
+	
+	/**
+	 * The number of chunks that are created for every thread , so that the work is balanced
+	 * even if some chunks take longer to parse than others.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	/**
+	 * The name of the file that contains medlars collection.
+	 */
+	private String fileName;
+	
+	/**
+	 * The number of threads that will parse the file.
+	 */
+	private int parallelism;
+	
+	
+	
+	
+	/**
+	 * Constructor. Uses as many threads as the available processors.
+	 * 
+	 * @param path The path of the file that contains the medlars documents.
+	 */
+	public ParallelMedlarsDocumentReader(String path)
+	{
+		this(path , Runtime.getRuntime().availableProcessors());
+	}
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param path The path of the file that contains the medlars documents.
+	 * @param parallelism The number of threads that will parse the file.
+	 */
+	public ParallelMedlarsDocumentReader(String path , int parallelism)
+	{
+		this.fileName = path;
+		this.parallelism = Math.max(1 , parallelism);
+	}
+	
+	
+	
+	
+	/**
+	 * Finds and returns a list with all the documents of medlars collection.
+	 * 
+	 * @return docs A list with all the MedlarsDocument objects , in the order they appear in the file.
+	 */
+	public List<MedlarsDocument> getDocuments()
+	{
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		
+		try
+		{
+			ByteBuffer buffer = MedlarsRecordScanner.map(this.fileName);
+			
+			int[] bounds = this.split(buffer , this.parallelism * CHUNKS_PER_THREAD);
+			
+			return pool.invoke(new ParseTask(buffer , bounds , 0 , bounds.length - 1));
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+			return new ArrayList<MedlarsDocument>();
+		}
+		
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Splits the buffer in chunks of about the same size , that start at a .I line.
+	 * 
+	 * @param buffer The bytes of the collection.
+	 * @param chunks The number of chunks that we want.
+	 * 
+	 * @return bounds The positions where the chunks begin , followed by the limit of the buffer.
+	 */
+	private int[] split(ByteBuffer buffer , int chunks)
+	{
+		int size = buffer.limit();
+		
+		List<Integer> starts = new ArrayList<Integer>();
+		starts.add(0);
+		
+		for(int i = 1; i < chunks; i++)
+		{
+			int start = MedlarsRecordScanner.findRecordStart(buffer , (int)((long)size * i / chunks));
+			
+			//Very long records may make two chunks start at the same line.
+			if(start > starts.get(starts.size() - 1) && start < size) starts.add(start);
+		}
+		
+		int[] bounds = new int[starts.size() + 1];
+		
+		for(int i = 0; i < starts.size(); i++)
+		{
+			bounds[i] = starts.get(i);
+		}
+		
+		bounds[bounds.length - 1] = size;
+		
+		return bounds;
+	}
+	
+	
+	
+	
+	/**
+	 * A task that parses a range of chunks. Ranges with more than one chunk are split in two halves.
+	 */
+	private static class ParseTask extends RecursiveTask<List<MedlarsDocument>>
+	{
+		
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * The bytes of the collection.
+		 */
+		private ByteBuffer buffer;
+		
+		/**
+		 * The positions where the chunks begin.
+		 */
+		private int[] bounds;
+		
+		/**
+		 * The first chunk of the range.
+		 */
+		private int from;
+		
+		/**
+		 * The chunk after the last chunk of the range.
+		 */
+		private int to;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param buffer The bytes of the collection.
+		 * @param bounds The positions where the chunks begin.
+		 * @param from The first chunk of the range.
+		 * @param to The chunk after the last chunk of the range.
+		 */
+		public ParseTask(ByteBuffer buffer , int[] bounds , int from , int to)
+		{
+			this.buffer = buffer;
+			this.bounds = bounds;
+			this.from = from;
+			this.to = to;
+		}
+		
+		
+		
+		
+		@Override
+		protected List<MedlarsDocument> compute()
+		{
+			if(this.to - this.from > 1)
+			{
+				int middle = (this.from + this.to) >>> 1;
+				
+				ParseTask left = new ParseTask(this.buffer , this.bounds , this.from , middle);
+				ParseTask right = new ParseTask(this.buffer , this.bounds , middle , this.to);
+				
+				right.fork();
+				List<MedlarsDocument> docs = left.compute();
+				docs.addAll(right.join());
+				
+				return docs;
+			}
+			
+			List<MedlarsDocument> docs = new ArrayList<MedlarsDocument>();
+			
+			if(this.from >= this.to) return docs;
+			
+			//Every task scans its own view of the shared buffer.
+			ByteBuffer chunk = this.buffer.duplicate();
+			chunk.limit(this.bounds[this.to]);
+			chunk.position(this.bounds[this.from]);
+			
+			MedlarsRecordScanner scanner = new MedlarsRecordScanner(chunk);
+			
+			while(scanner.next())
+			{
+				docs.add(scanner.toDocument());
+			}
+			
+			return docs;
+		}
+	}
+}
\ No newline at end of file
@@ -1,155 +1,455 @@
-package part2.simple_search;
-
-import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.en.EnglishAnalyzer;
-import org.apache.lucene.document.Document;
-import org.apache.lucene.document.IntField;
-import org.apache.lucene.document.Field;
-import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig.OpenMode;
-import org.apache.lucene.index.IndexWriterConfig;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
-import org.apache.lucene.util.Version;
-
-import part2.medlars.MedlarsDocument;
-import part2.medlars.MedlarsDocumentReader;
-
-import java.io.File;
-import java.util.List;
-
-/**
- * @author Stamatis Pitsios
- *
- * This class provides all the necessary functions , in order to create the indexes on medlars collection.
- */
-public class SimpleLuceneIndexer
-{
-	
-	/**
-	 * The path of the file that contains the medlars collection.
-	 */
-	private String docsFile;
-	
-	/**
-	 * The name of the directory that Lucene is going to store the indexes.
-	 */
-	private String indexLocation;
-	
-	/**
-	 * Our reader.
-	 */
-	private MedlarsDocumentReader reader;
-	
-	
-	
-	
-	/**
-	 * Constructor.
-	 * 
-	 * @param docsPath The path of the medlars collection file.
-	 * @param indexPath The folder that the indexes are going to be stored.
-	 */
-	public SimpleLuceneIndexer(String docsPath , String indexPath)
-	{
-		this.docsFile = docsPath;
-		this.indexLocation = indexPath;
-		this.reader = new MedlarsDocumentReader(this.docsFile);
-	}
-	
-	
-	
-	
-	/**
-	 * Creates the Lucene indexes.
-	 */
-	public void createIndex()
-	{
-		//Get all the documents of the collection.
-		List<MedlarsDocument> docs = reader.getDocuments();
-		
-		//Useful to count how much time did it take to create the index.
-		long start = System.currentTimeMillis();
-		
-		try
-		{
-			System.out.println("Indexing to directory '" + this.indexLocation + "'. Please wait...");
-			
-			//Create the directory where the indexes will be stored.
-			Directory dir = FSDirectory.open(new File(indexLocation));
-	            
-			//Define which analyzer to use for the normalization of documents.
-	        Analyzer analyzer = new EnglishAnalyzer(Version.LUCENE_4_9);
-	         
-	        //Configure IndexWriter.
-	        IndexWriterConfig iwc = new IndexWriterConfig(Version.LUCENE_4_9 , analyzer);
-	        
-	        //Create a new index in the directory, removing any previously indexed documents:
-            iwc.setOpenMode(OpenMode.CREATE);
-            
-            //Create the IndexWriter with the configuration as above. 
-            IndexWriter indexWriter = new IndexWriter(dir, iwc);
-            
-            //Index every document.
-            for(MedlarsDocument doc : docs)
-            {
-            	this.indexDocument(indexWriter, doc);
-            }
-            
-            //close the writer stream.
-            indexWriter.close();
-            
-            //Print  the elapsed time.
-            long end = System.currentTimeMillis();
-            System.out.println("Time took to create index : " + (double)(end-start)/(double)1000 + " seconds.\n");
-		}
-		
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-	}
-	
-	
-	
-	
-	/**
-	 * Creates a Document by adding Fields in it and 
-     * indexes the Document with the IndexWriter.
-	 * 
-	 * @param indexWriter The indexWriter that will index Documents.
-	 * @param document The document to be indexed.
-	 */
-	private void indexDocument(IndexWriter indexWriter , MedlarsDocument document)
-	{
-		try
-		{
-			//Make a new , empty document.
-            Document doc = new Document();
-            
-            /*
-             * Create the fields of the document and add them to the index.
-             */
-            
-            //Add the id of the document.
-            IntField docID = new IntField("id" , document.getId() , Field.Store.YES);
-            doc.add(docID);
-            
-            //Add the words to the index.
-            TextField docText = new TextField("text" , document.getText() , Field.Store.NO);
-            doc.add(docText);
-            
-            if (indexWriter.getConfig().getOpenMode() == OpenMode.CREATE) 
-            {
-                //New index, so we just add the document (no old document can be there).
-                indexWriter.addDocument(doc);
-            } 
-		}
-		
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-	}
+package part2.simple_search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.Version;
+
+import part2.medlars.CorpusCache;
+import part2.medlars.DocumentStore;
+import part2.medlars.MedlarsDocument;
+import part2.util.DocumentTemplate;
+import part2.util.IndexManifest;
+import part2.util.IndexingPipeline;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class provides all the necessary functions , in order to create the indexes on medlars collection.
+ */
+public class SimpleLuceneIndexer
+{
+	
+	/**
+	 * The path of the file that contains the medlars collection.
+	 */
+	private String docsFile;
+	
+	/**
+	 * The name of the directory that Lucene is going to store the indexes.
+	 */
+	private String indexLocation;
+	
+	/**
+	 * Our reader. It reads the documents from the binary cache of the collection , which is created on the first run.
+	 */
+	private CorpusCache reader;
+	
+	/**
+	 * Whether the existing index will be updated with the changes of the collection , instead of being created from scratch.
+	 */
+	private boolean incremental;
+	
+	/**
+	 * The number of threads that index the documents.
+	 */
+	private int threads;
+	
+	/**
+	 * The number of bytes that the indexing threads allocated during the last run , or -1 if it could not be measured.
+	 */
+	private long allocatedBytes;
+	
+	/**
+	 * The amount of RAM (in MB) that Lucene can use to buffer documents before flushing them to the directory.
+	 */
+	private double ramBufferSizeMB;
+	
+	/**
+	 * The maximum number of threads that can add documents to the IndexWriter at the same time.
+	 */
+	private int maxThreadStates;
+	
+	/**
+	 * True if the documents are stored in the index from the shortest to the longest.
+	 */
+	private boolean sortByLength;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param docsPath The path of the medlars collection file.
+	 * @param indexPath The folder that the indexes are going to be stored.
+	 */
+	public SimpleLuceneIndexer(String docsPath , String indexPath)
+	{
+		this(docsPath , indexPath , false);
+	}
+	
+	
+	
+	
+	/**
+	 * Overloaded constructor.
+	 * 
+	 * @param docsPath The path of the medlars collection file.
+	 * @param indexPath The folder that the indexes are going to be stored.
+	 * @param incremental If true , only the documents that are new , changed or deleted since the last run are indexed.
+	 */
+	public SimpleLuceneIndexer(String docsPath , String indexPath , boolean incremental)
+	{
+		this.docsFile = docsPath;
+		this.indexLocation = indexPath;
+		this.reader = new CorpusCache(this.docsFile);
+		this.incremental = incremental;
+		this.threads = 1;
+		this.allocatedBytes = -1;
+		this.ramBufferSizeMB = IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB;
+		this.maxThreadStates = IndexWriterConfig.DEFAULT_MAX_THREAD_STATES;
+		this.sortByLength = false;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the number of threads that index the documents.
+	 * With more than one thread , the documents may be stored in the index in a different order than in the collection.
+	 * 
+	 * @param threads The number of indexing threads.
+	 */
+	public void setThreads(int threads)
+	{
+		this.threads = Math.max(1 , threads);
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the number of bytes that the indexing threads allocated during the last call of createIndex().
+	 * 
+	 * @return The allocated bytes , or -1 if the JVM can not measure them.
+	 */
+	public long getAllocatedBytes()
+	{
+		return this.allocatedBytes;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the amount of RAM that Lucene can use to buffer documents.
+	 * 
+	 * @param ramBufferSizeMB The size of the buffer in MB.
+	 */
+	public void setRAMBufferSizeMB(double ramBufferSizeMB)
+	{
+		this.ramBufferSizeMB = ramBufferSizeMB;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the maximum number of threads that can add documents to the IndexWriter at the same time.
+	 * 
+	 * @param maxThreadStates The number of thread states of the IndexWriter.
+	 */
+	public void setMaxThreadStates(int maxThreadStates)
+	{
+		this.maxThreadStates = maxThreadStates;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets if the documents are stored in the index from the shortest to the longest , instead of the order of the collection.
+	 * Short documents get the highest length norms , so the documents that can score highest come first and
+	 * EarlyTermination can stop searching a segment early. The documents are indexed by one thread and the segments are
+	 * merged only with their neighbours , to keep the order. It has no effect in incremental mode.
+	 * Unlike the other modes , which index the documents while they are read , the whole collection is kept in memory
+	 * (about 1 MB for the medlars collection) , because the lengths of all the documents must be known before indexing starts.
+	 * 
+	 * @param sortByLength True if the documents are sorted by their length.
+	 */
+	public void setSortByLength(boolean sortByLength)
+	{
+		this.sortByLength = sortByLength;
+	}
+	
+	
+	
+	
+	/**
+	 * Creates the Lucene indexes. In incremental mode , the existing index is updated instead.
+	 */
+	public void createIndex()
+	{
+		//Useful to count how much time did it take to create the index.
+		long start = System.currentTimeMillis();
+		
+		try
+		{
+			System.out.println("Indexing to directory '" + this.indexLocation + "'. Please wait...");
+			
+			//Create the directory where the indexes will be stored.
+			Directory dir = FSDirectory.open(new File(indexLocation));
+	            
+			//Define which analyzer to use for the normalization of documents.
+	        Analyzer analyzer = new EnglishAnalyzer(Version.LUCENE_4_9);
+	         
+	        //Configure IndexWriter.
+	        IndexWriterConfig iwc = new IndexWriterConfig(Version.LUCENE_4_9 , analyzer);
+	        
+	        //Create a new index in the directory, removing any previously indexed documents,
+	        //or open the existing one (if any) when we only index the changes.
+            iwc.setOpenMode(this.incremental ? OpenMode.CREATE_OR_APPEND : OpenMode.CREATE);
+            
+            //Let every indexing thread buffer documents on its own.
+            iwc.setRAMBufferSizeMB(this.ramBufferSizeMB);
+            iwc.setMaxThreadStates(this.maxThreadStates);
+            
+            //The documents keep the order that they are added only with one thread , and with a merge policy that merges neighbouring segments.
+            final boolean sorted = this.sortByLength && !this.incremental;
+            if(sorted) iwc.setMergePolicy(new LogDocMergePolicy());
+            
+            //Create the IndexWriter with the configuration as above. 
+            final IndexWriter indexWriter = new IndexWriter(dir, iwc);
+            
+            //The hashes of the documents that were indexed in the previous run.
+            final IndexManifest manifest = new IndexManifest(this.indexLocation);
+            if(!this.incremental) manifest.clear();
+            
+            //Start the threads that will index the documents. This thread reads the collection and feeds them.
+            IndexingPipeline pipeline = new IndexingPipeline(sorted ? 1 : this.threads , new IndexingPipeline.WorkerFactory()
+            {
+            	@Override
+            	public IndexingPipeline.Worker newWorker()
+            	{
+            		final DocumentTemplate template = new DocumentTemplate();
+            		
+            		return new IndexingPipeline.Worker()
+            		{
+            			@Override
+            			public boolean index(DocumentStore.View document)
+            			{
+            				if(!indexDocument(indexWriter, template, document)) return false;
+            				
+            				//Keep the hashes only of the documents that were indexed , so that a document that failed is indexed again in the next run.
+            				manifest.put(document.getId(), IndexManifest.hash(document));
+            				
+            				return true;
+            			}
+            		};
+            	}
+            });
+            
+            if(this.incremental)
+            {
+            	this.updateDocuments(indexWriter, pipeline, manifest);
+            }
+            
+            else if(sorted)
+            {
+            	//The lengths of all the documents must be known before the first one is indexed , so the whole collection is loaded.
+            	DocumentStore store = DocumentStore.load(this.reader);
+            	DocumentStore.View doc = store.view();
+            	
+            	//Index every document , from the shortest to the longest.
+            	for(int index : this.orderByLength(store))
+            	{
+            		doc.moveTo(index);
+            		pipeline.submit(doc.getId(), doc);
+            	}
+            }
+            
+            else
+            {
+            	//Index every document while the collection is being read.
+            	for(MedlarsDocument doc : this.reader)
+            	{
+            		pipeline.submit(doc.getId(), doc.getText());
+            	}
+            }
+            
+            //Wait for the workers to index all the documents.
+            int indexed = pipeline.finish();
+            this.allocatedBytes = pipeline.getAllocatedBytes();
+            
+            //close the writer stream.
+            indexWriter.close();
+            
+            //The changes are committed , so keep the hashes for the next run.
+            manifest.save();
+            
+            //Print  the elapsed time and the throughput.
+            long end = System.currentTimeMillis();
+            System.out.println("Time took to create index : " + (double)(end-start)/(double)1000 + " seconds.");
+            System.out.println("Indexed " + indexed + " documents with " + pipeline.getThreads() + " thread(s) : " + (long)(indexed * 1000.0 / Math.max(1 , end - start)) + " docs/sec.");
+            if(pipeline.getAllocatedBytes() >= 0) System.out.println("Allocated " + pipeline.getAllocatedBytes() / Math.max(1 , indexed) + " bytes per document in the indexing threads.");
+            System.out.println();
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Indexes only the documents that are new or have changed since the last run ,
+	 * and deletes from the index the documents that no longer exist in the collection.
+	 * 
+	 * @param indexWriter The indexWriter that will index Documents.
+	 * @param pipeline The pipeline that the documents to be indexed are submitted to.
+	 * @param manifest The hashes of the documents that are already in the index. The deleted documents are removed from it ,
+	 *                 the new and changed ones are added when they have been indexed.
+	 * 
+	 * @throws Exception If the index can not be updated.
+	 */
+	private void updateDocuments(IndexWriter indexWriter , IndexingPipeline pipeline , IndexManifest manifest) throws Exception
+	{
+		//The documents of the previous run. Whatever remains here in the end has been deleted from the collection.
+		Set<Integer> removed = new HashSet<Integer>();
+		for(int id : manifest.ids())
+		{
+			removed.add(id);
+		}
+		
+		int added = 0 , changed = 0 , unchanged = 0;
+		
+		for(MedlarsDocument doc : this.reader)
+		{
+			int id = doc.getId();
+			long hash = IndexManifest.hash(doc.getText());
+			Long previous = manifest.get(id);
+			
+			removed.remove(id);
+			
+			if(previous != null && previous == hash)
+			{
+				unchanged++;
+				continue;
+			}
+			
+			if(previous == null) added++;
+			else changed++;
+			
+			pipeline.submit(id, doc.getText());
+		}
+		
+		for(int id : removed)
+		{
+			indexWriter.deleteDocuments(idTerm(id));
+			manifest.remove(id);
+		}
+		
+		System.out.println("Added " + added + " , updated " + changed + " , deleted " + removed.size() + " and skipped " + unchanged + " unchanged documents.");
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the term that the IntField "id" of a document is indexed with.
+	 * 
+	 * @param id The id of the document.
+	 * 
+	 * @return The term of the id.
+	 */
+	private static Term idTerm(int id)
+	{
+		BytesRef bytes = new BytesRef(NumericUtils.BUF_SIZE_INT);
+		NumericUtils.intToPrefixCoded(id, 0, bytes);
+		
+		return new Term("id", bytes);
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the indexes of the documents of the store , from the shortest document to the longest.
+	 * Documents with the same length keep their order.
+	 */
+	private int[] orderByLength(DocumentStore store)
+	{
+		//The length is in the high bits and the index in the low bits , so sorting the keys sorts the documents.
+		long[] keys = new long[store.size()];
+		
+		for(int i = 0; i < keys.length; i++)
+		{
+			keys[i] = ((long)store.getLength(i) << 32) | i;
+		}
+		
+		Arrays.sort(keys);
+		
+		int[] order = new int[keys.length];
+		
+		for(int i = 0; i < keys.length; i++)
+		{
+			order[i] = (int)keys[i];
+		}
+		
+		return order;
+	}
+	
+	
+	
+	
+	/**
+	 * Creates a Document by adding Fields in it and 
+     * indexes the Document with the IndexWriter.
+	 * 
+	 * @param indexWriter The indexWriter that will index Documents.
+	 * @param template The reusable Document of the current thread.
+	 * @param document The document to be indexed.
+	 * 
+	 * @return true If the document was indexed , false otherwise.
+	 */
+	private boolean indexDocument(IndexWriter indexWriter , DocumentTemplate template , DocumentStore.View document)
+	{
+		try
+		{
+            /*
+             * Reuse the document and its fields , only setting their new values.
+             * The text is read straight from the store , without creating a String.
+             */
+            Document doc = template.set(document.getId() , document.reader());
+            
+            if (indexWriter.getConfig().getOpenMode() == OpenMode.CREATE) 
+            {
+                //New index, so we just add the document (no old document can be there).
+                indexWriter.addDocument(doc);
+            } 
+            
+            else
+            {
+            	//Existing index, so replace the older version of the document (if any).
+            	indexWriter.updateDocument(idTerm(document.getId()), doc);
+            }
+            
+            return true;
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+			
+			return false;
+		}
+	}
 }
\ No newline at end of file
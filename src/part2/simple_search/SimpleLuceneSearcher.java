@@ -1,180 +1,381 @@
-package part2.simple_search;
-
-
-
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.util.List;
-
-import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.en.EnglishAnalyzer;
-import org.apache.lucene.document.Document;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.queryparser.classic.QueryParser;
-import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.Query;
-import org.apache.lucene.search.ScoreDoc;
-import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.store.FSDirectory;
-import org.apache.lucene.util.Version;
-
-import part2.medlars.MedlarsDocument;
-import part2.medlars.MedlarsDocumentReader;
-
-
-
-/**
- * @author Stamatis Pitsios
- *
- * This class provides the necessary functionality to query the Lucene
- * search engine.
- */
-public class SimpleLuceneSearcher
-{	
-	
-	/**
-	 * The location of the index.
-	 */
-	private String indexLocation;
-	
-	/**
-	 * The field that we will be searching.
-	 */
-	private String searchField;
-	
-	/**
-	 * The queries that we will use for searching.
-	 */
-	private List<MedlarsDocument> queries;
-	
-	/**
-	 * The reader that will read the queries from the file.
-	 */
-	private MedlarsDocumentReader reader;
-	
-	/**
-	 * The path of the file where the results of the search will be kept.
-	 */
-	private static final String resultsPath = "medlars/RESULTS_SIMPLE.txt";
-	
-	/**
-	 * The number of the documents that we want to retrieve.
-	 */
-	private int numOfDocuments;
-	
-	
-	
-	
-	/**
-	 * Constructor.
-	 * 
-	 * @param indexLocation The folder that keeps the indexes.
-	 * @param searchField The field to search in.
-	 * @param queriesPath The path to the file that contains the queries.
-	 * @param numOfDocuments The number of the documents that we want to retrieve.
-	 */
-	public SimpleLuceneSearcher(String indexLocation , String searchField , String queriesPath , int numOfDocuments)
-	{
-		this.indexLocation = (indexLocation);
-		this.searchField = searchField;
-		this.reader = new MedlarsDocumentReader(queriesPath);
-		this.queries = reader.getDocuments();
-		this.numOfDocuments = numOfDocuments;
-	}
-	
-	
-	
-	
-	/**
-	 * Searches the index created with all the queries and saves the results to a file.
-	 */
-	public void search()
-	{
-		//Useful to count how much time did it take to get the answers for all the queries.
-		long start = System.currentTimeMillis();
-		
-		try
-		{
-			System.out.println("Starting to query Lucene Engine...");
-			
-			//Access the index using indexReader
-	        IndexReader indexReader = DirectoryReader.open(FSDirectory.open(new File(this.indexLocation))); 
-	        
-	        //Create an IndexSearcher for searching in indexes.
-	        IndexSearcher indexSearcher = new IndexSearcher(indexReader);
-	        
-	        //Define which analyzer to use for the normalization of user's query.
-            Analyzer analyzer = new EnglishAnalyzer(Version.LUCENE_4_9);
-            
-            //Create a query parser on the field "TEXT"
-            QueryParser parser = new QueryParser(Version.LUCENE_4_9 , this.searchField , analyzer);
-            
-            //A string that will hold the query.
-            String q = "";
-            
-            //The query.
-            Query query ;
-            
-            //A writer to write the results of the query to the file.
-            BufferedWriter bw = new BufferedWriter(new FileWriter(new File(resultsPath)));
-            
-            //For each query , get the results and save them to a file.
-            for(MedlarsDocument doc : queries)
-            {
-            	q = doc.getText();
-            	query = parser.parse(q);
-            	this.saveResults(bw, query, indexSearcher , doc);
-            }
-            
-            //Close the writer.
-            bw.close();
-            
-	        //Close indexReader.
-            indexReader.close();
-            
-            //Print the elapsed time.
-            long end = System.currentTimeMillis();
-            System.out.println("Time took to get the top " + this.numOfDocuments + " answers for all the queries is : " + (double)(end-start)/(double)1000 + " seconds.");
-		}
-		
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-	}
-	
-	
-	
-	
-	/**
-	 * Gets the results for the given query and saves them to a file in Trec Eval's format.
-	 * 
-	 * @param bw The writer.
-	 * @param query The query.
-	 * @param indexSearcher The IndexSearcher.
-	 * @param doc The query as a MedlarsDocument object.
-	 */
-	private void saveResults(BufferedWriter bw , Query query , IndexSearcher indexSearcher , MedlarsDocument doc)
-	{
-		try
-		{
-			//Search the index using the indexSearcher.
-	        TopDocs results = indexSearcher.search(query, this.numOfDocuments);
-	        ScoreDoc[] hits = results.scoreDocs;
-	        
-	        //Save the results.
-	        for(int i=0; i<hits.length; i++)
-	        {
-	            Document hitDoc = indexSearcher.doc(hits[i].doc);
-	            bw.write(String.valueOf(doc.getId()) + " 0 " + String.valueOf(hitDoc.get("id")) + " " +String.valueOf(i+1)+ " " + String.valueOf(hits[i].score) + " STANDARD\n");
-	        }
-		}
-		
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-	}
+package part2.simple_search;
+
+
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+
+import part2.medlars.MedlarsDocument;
+import part2.medlars.MedlarsDocumentReader;
+import part2.util.EarlyTermination;
+import part2.util.MedlarsIds;
+import part2.util.RunWriter;
+
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class provides the necessary functionality to query the Lucene
+ * search engine.
+ */
+public class SimpleLuceneSearcher
+{	
+	
+	/**
+	 * The location of the index.
+	 */
+	private String indexLocation;
+	
+	/**
+	 * The field that we will be searching.
+	 */
+	private String searchField;
+	
+	/**
+	 * The queries that we will use for searching.
+	 */
+	private List<MedlarsDocument> queries;
+	
+	/**
+	 * The reader that will read the queries from the file.
+	 */
+	private MedlarsDocumentReader reader;
+	
+	/**
+	 * The path of the file where the results of the search will be kept.
+	 */
+	private static final String resultsPath = "medlars/RESULTS_SIMPLE.txt";
+	
+	/**
+	 * The number of the documents that we want to retrieve.
+	 */
+	private int numOfDocuments;
+	
+	/**
+	 * The number of threads that run the queries concurrently.
+	 */
+	private int threads;
+	
+	/**
+	 * The number of threads that search the segments of the index in parallel , for every query.
+	 * If it is 1 , every query searches the segments one after the other.
+	 */
+	private int segmentThreads;
+	
+	/**
+	 * Searches a query without scoring the documents that can not enter its top documents.
+	 * It is null if every document that matches a query is scored.
+	 */
+	private EarlyTermination earlyTermination;
+	
+	/**
+	 * The format of the file of the results.
+	 */
+	private RunWriter.Format runFormat;
+	
+	/**
+	 * The similarity that scores the documents , or null for the default similarity of Lucene.
+	 */
+	private Similarity similarity;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param indexLocation The folder that keeps the indexes.
+	 * @param searchField The field to search in.
+	 * @param queriesPath The path to the file that contains the queries.
+	 * @param numOfDocuments The number of the documents that we want to retrieve.
+	 */
+	public SimpleLuceneSearcher(String indexLocation , String searchField , String queriesPath , int numOfDocuments)
+	{
+		this.indexLocation = (indexLocation);
+		this.searchField = searchField;
+		this.reader = new MedlarsDocumentReader(queriesPath);
+		this.queries = reader.getDocuments();
+		this.numOfDocuments = numOfDocuments;
+		this.threads = Runtime.getRuntime().availableProcessors();
+		this.segmentThreads = 1;
+		this.earlyTermination = null;
+		this.runFormat = RunWriter.Format.TREC;
+		this.similarity = null;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the number of threads that run the queries concurrently.
+	 * 
+	 * @param threads The number of query threads.
+	 */
+	public void setThreads(int threads)
+	{
+		this.threads = Math.max(1 , threads);
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the number of threads that search the segments of the index in parallel , for every query.
+	 * 
+	 * @param segmentThreads The number of segment threads. 1 means that the segments are searched one after the other.
+	 */
+	public void setSegmentThreads(int segmentThreads)
+	{
+		this.segmentThreads = Math.max(1 , segmentThreads);
+	}
+	
+	
+	
+	
+	/**
+	 * Sets if the search of a query stops scoring the documents of a segment when they can not enter its top documents.
+	 * The results are the same , but the search is faster only on an index that is sorted by length (see SimpleLuceneIndexer.setSortByLength()).
+	 * 
+	 * @param earlyTermination True to stop early , false to score every document that matches.
+	 */
+	public void setEarlyTermination(boolean earlyTermination)
+	{
+		this.earlyTermination = earlyTermination ? new EarlyTermination(this.searchField) : null;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the similarity that scores the documents. By default , it is the DefaultSimilarity of Lucene.
+	 * The norms of the index are encoded the same way by BM25Similarity and the similarities of the language models ,
+	 * so any of them can search the index. See part2.evaluation.ParameterSweep to find the best one.
+	 * 
+	 * @param similarity The similarity , or null for the default similarity.
+	 */
+	public void setSimilarity(Similarity similarity)
+	{
+		this.similarity = similarity;
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the format of the file of the results. By default , it is the text format of Trec Eval.
+	 * A binary run is saved next to the text one , with the extension ".run".
+	 * 
+	 * @param runFormat The format.
+	 */
+	public void setRunFormat(RunWriter.Format runFormat)
+	{
+		this.runFormat = runFormat;
+	}
+	
+	
+	
+	
+	/**
+	 * Searches the index created with all the queries and saves the results to a file , in the format of setRunFormat().
+	 */
+	public void search()
+	{
+		try
+		{
+			RunWriter runWriter = this.runFormat.open(this.runFormat.path(resultsPath));
+			this.search(runWriter);
+			runWriter.close();
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Searches the index created with all the queries and writes the results to a RunWriter.
+	 * The queries run concurrently , but their results are written in the order of the queries.
+	 * The writer is not closed , so the results can be kept in memory (see part2.evaluation.Run).
+	 * 
+	 * @param runWriter The writer of the results.
+	 */
+	public void search(RunWriter runWriter)
+	{
+		//Useful to count how much time did it take to get the answers for all the queries.
+		long start = System.currentTimeMillis();
+		
+		try
+		{
+			System.out.println("Starting to query Lucene Engine...");
+			
+			//Access the index using indexReader
+	        IndexReader indexReader = DirectoryReader.open(FSDirectory.open(new File(this.indexLocation))); 
+	        
+	        //The threads that run the queries , and the threads that search the segments of the index.
+	        //They must be different , so that a query never waits for a segment search that can not find a free thread.
+	        ExecutorService queryExecutor = Executors.newFixedThreadPool(this.threads);
+	        ExecutorService segmentExecutor = this.segmentThreads > 1 ? Executors.newFixedThreadPool(this.segmentThreads) : null;
+	        
+	        try
+	        {
+	        	//Create an IndexSearcher for searching in indexes.
+	        	IndexSearcher indexSearcher = segmentExecutor == null ? new IndexSearcher(indexReader) : new IndexSearcher(indexReader , segmentExecutor);
+	        	if(this.similarity != null) indexSearcher.setSimilarity(this.similarity);
+	        	
+	        	//Define which analyzer to use for the normalization of user's query. It can be shared by all the threads.
+	        	Analyzer analyzer = new EnglishAnalyzer(Version.LUCENE_4_9);
+	        	
+	        	//Submit all the queries.
+	        	List<Future<TopDocs>> results = new ArrayList<Future<TopDocs>>();
+	        	
+	        	for(MedlarsDocument doc : queries)
+	        	{
+	        		results.add(queryExecutor.submit(new QueryTask(indexSearcher , analyzer , doc)));
+	        	}
+	        	
+	        	//For each query , wait for its results and save them to a file.
+	        	for(int i = 0; i < queries.size(); i++)
+	        	{
+	        		this.saveResults(runWriter , results.get(i), indexSearcher , queries.get(i));
+	        	}
+	        }
+	        
+	        finally
+	        {
+	        	//Stop the threads , even if a query failed , so that they do not keep the JVM alive.
+	        	//When all the results are saved , there is nothing left for them to do.
+	        	queryExecutor.shutdownNow();
+	        	if(segmentExecutor != null) segmentExecutor.shutdownNow();
+	        	
+	        	//Close indexReader.
+	        	indexReader.close();
+	        }
+            
+            //Print the elapsed time.
+            long end = System.currentTimeMillis();
+            System.out.println("Time took to get the top " + this.numOfDocuments + " answers for all the queries is : " + (double)(end-start)/(double)1000 + " seconds.");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Gets the results for the given query and saves them to a file in the format of the run.
+	 * 
+	 * @param runWriter The writer of the run.
+	 * @param search The search of the query , that may still be running.
+	 * @param indexSearcher The IndexSearcher.
+	 * @param doc The query as a MedlarsDocument object.
+	 */
+	private void saveResults(RunWriter runWriter , Future<TopDocs> search , IndexSearcher indexSearcher , MedlarsDocument doc)
+	{
+		try
+		{
+			//Wait for the search of the query to finish.
+	        TopDocs results = search.get();
+	        ScoreDoc[] hits = results.scoreDocs;
+	        
+	        //The medlars ids of the hits are read from the doc values , not from the stored fields.
+	        MedlarsIds ids = new MedlarsIds(indexSearcher.getIndexReader());
+	        
+	        //Save the results.
+	        for(int i=0; i<hits.length; i++)
+	        {
+	            runWriter.write(doc.getId() , ids.get(hits[i].doc) , i+1 , hits[i].score);
+	        }
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * A task that parses a query and searches the index with it.
+	 */
+	private class QueryTask implements Callable<TopDocs>
+	{
+		
+		/**
+		 * The IndexSearcher. It is shared by all the tasks.
+		 */
+		private IndexSearcher indexSearcher;
+		
+		/**
+		 * The analyzer of the query.
+		 */
+		private Analyzer analyzer;
+		
+		/**
+		 * The query as a MedlarsDocument object.
+		 */
+		private MedlarsDocument doc;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param indexSearcher The IndexSearcher.
+		 * @param analyzer The analyzer of the query.
+		 * @param doc The query as a MedlarsDocument object.
+		 */
+		public QueryTask(IndexSearcher indexSearcher , Analyzer analyzer , MedlarsDocument doc)
+		{
+			this.indexSearcher = indexSearcher;
+			this.analyzer = analyzer;
+			this.doc = doc;
+		}
+		
+		
+		
+		
+		@Override
+		public TopDocs call() throws Exception
+		{
+			//Create a query parser on the field "TEXT". A parser is not thread safe , so every task has its own.
+            QueryParser parser = new QueryParser(Version.LUCENE_4_9 , searchField , this.analyzer);
+            
+            Query query = parser.parse(this.doc.getText());
+            
+            //Search the index using the indexSearcher.
+            if(earlyTermination != null) return earlyTermination.search(this.indexSearcher , query , numOfDocuments);
+            
+            return this.indexSearcher.search(query, numOfDocuments);
+		}
+	}
 }
\ No newline at end of file
@@ -1,15 +1,49 @@
-package part2.simple_search;
-
-public class SimpleSearch 
-{
-	public static void main(String[] args) 
-	{
-		//Create the index.
-		SimpleLuceneIndexer indexer = new SimpleLuceneIndexer("medlars/MED.ALL", "index/index_simple");
-		indexer.createIndex();
-		
-		//Make the queries to the Lucene.
-		SimpleLuceneSearcher searcher = new SimpleLuceneSearcher("index/index_simple", "text" , "medlars/MED.QRY" , 100);
-		searcher.search();
-	}
+package part2.simple_search;
+
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.search.similarities.LMDirichletSimilarity;
+import org.apache.lucene.search.similarities.Similarity;
+
+import part2.util.RunWriter;
+
+public class SimpleSearch 
+{
+	public static void main(String[] args) 
+	{
+		//Options : "-incremental" to index only the changes of the collection , "-threads N" to index with N threads ,
+		//"-sorted" to store the documents from the shortest to the longest , "-early" to stop scoring documents that can not enter the top 100 ,
+		//"-binary" to save the results as a binary run , "-bm25 k1 b" or "-lm mu" to score the documents with BM25 or LMDirichlet.
+		boolean incremental = false;
+		int threads = 1;
+		boolean sorted = false;
+		boolean early = false;
+		boolean binary = false;
+		Similarity similarity = null;
+		
+		for(int i = 0; i < args.length; i++)
+		{
+			if(args[i].equals("-incremental")) incremental = true;
+			else if(args[i].equals("-threads") && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-sorted")) sorted = true;
+			else if(args[i].equals("-early")) early = true;
+			else if(args[i].equals("-binary")) binary = true;
+			else if(args[i].equals("-bm25") && i + 2 < args.length) similarity = new BM25Similarity(Float.parseFloat(args[++i]) , Float.parseFloat(args[++i]));
+			else if(args[i].equals("-lm") && i + 1 < args.length) similarity = new LMDirichletSimilarity(Float.parseFloat(args[++i]));
+		}
+		
+		//Create the index.
+		SimpleLuceneIndexer indexer = new SimpleLuceneIndexer("medlars/MED.ALL", "index/index_simple" , incremental);
+		indexer.setThreads(threads);
+		indexer.setMaxThreadStates(Math.max(threads , IndexWriterConfig.DEFAULT_MAX_THREAD_STATES));
+		indexer.setSortByLength(sorted);
+		indexer.createIndex();
+		
+		//Make the queries to the Lucene.
+		SimpleLuceneSearcher searcher = new SimpleLuceneSearcher("index/index_simple", "text" , "medlars/MED.QRY" , 100);
+		searcher.setEarlyTermination(early);
+		searcher.setRunFormat(binary ? RunWriter.Format.BINARY : RunWriter.Format.TREC);
+		searcher.setSimilarity(similarity);
+		searcher.search();
+	}
 }
\ No newline at end of file
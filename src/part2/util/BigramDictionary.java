@@ -0,0 +1,255 @@
+package part2.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.util.Version;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class holds the stop words and the BINDEX (the bigrams that were found in wikipedia's articles).
+ * It is never modified after it is loaded , so a single instance can be shared by all the
+ * SimpleAnalyzer objects of all the threads. The stop words are kept in a CharArraySet , so a word can also
+ * be looked up from a part of a char[] , without creating a String.
+ * 
+ * Every word of the BINDEX gets an int id from a TermDictionary , and a bigram is kept in a LongHashSet as the two ids
+ * packed in a long , (first << 32) | second. An analyzer finds the id of a word once , when it reads it ,
+ * and then a bigram is looked up with the ids of its two words , without gluing them together.
+ */
+public class BigramDictionary
+{
+	
+	/**
+	 * The path of the file with the stop words.
+	 */
+	public static final String STOPWORDS_PATH = "stopwords/stopwords.txt";
+	
+	/**
+	 * The path of the file with the bigrams.
+	 */
+	public static final String BINDEX_PATH = "bindex/BINDEX.txt";
+	
+	/**
+	 * The dictionary that is loaded from the default files. It is created the first time it is requested.
+	 */
+	private static BigramDictionary defaultDictionary;
+	
+	/**
+	 * A set that will hold all the stop words.
+	 */
+	private CharArraySet stopwords;
+	
+	/**
+	 * The ids of the words of the bindex.
+	 */
+	private TermDictionary terms;
+	
+	/**
+	 * The bindex that contain wikipedia's bigrams , as the packed ids of their words.
+	 */
+	private LongHashSet bindex;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param stopwordsPath The path of the file with the stop words.
+	 * @param bindexPath The path of the file with the bigrams.
+	 */
+	public BigramDictionary(String stopwordsPath , String bindexPath)
+	{
+		this.stopwords = CharArraySet.unmodifiableSet(new CharArraySet(Version.LUCENE_4_9 , readWords(stopwordsPath) , false));
+		this.terms = new TermDictionary();
+		this.bindex = new LongHashSet();
+		
+		for(String bigram : readWords(bindexPath))
+		{
+			//The words of the text never contain '_' , so the lines that are not two words can never be found.
+			int separator = bigram.indexOf('_');
+			if(separator < 0 || bigram.indexOf('_' , separator + 1) >= 0) continue;
+			
+			int first = this.terms.add(bigram.substring(0 , separator));
+			int second = this.terms.add(bigram.substring(separator + 1));
+			
+			this.bindex.add(pack(first , second));
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the dictionary of the default stop words and BINDEX files , loading it if needed.
+	 * 
+	 * @return The shared dictionary.
+	 */
+	public static synchronized BigramDictionary getDefault()
+	{
+		if(defaultDictionary == null) defaultDictionary = new BigramDictionary(STOPWORDS_PATH , BINDEX_PATH);
+		
+		return defaultDictionary;
+	}
+	
+	
+	
+	
+	/**
+	 * Tells us whether a word is a stop word.
+	 * 
+	 * @param word The word.
+	 * 
+	 * @return true If the word is a stop word , false otherwise.
+	 */
+	public boolean isStopword(String word)
+	{
+		return this.stopwords.contains(word);
+	}
+	
+	
+	
+	
+	/**
+	 * Tells us whether a part of a char[] is a stop word.
+	 * 
+	 * @param buffer The chars.
+	 * @param offset The first char of the word.
+	 * @param length The length of the word.
+	 * 
+	 * @return true If the word is a stop word , false otherwise.
+	 */
+	public boolean isStopword(char[] buffer , int offset , int length)
+	{
+		return this.stopwords.contains(buffer , offset , length);
+	}
+	
+	
+	
+	
+	/**
+	 * Given a String , this method tells us whether it is contained in our BINDEX or not.
+	 * 
+	 * @param bigram The bigram that we want to check if it is in our BINDEX.
+	 * 
+	 * @return true If the bigram is contained in the BINDEX , false otherwise.
+	 */
+	public boolean isInBindex(String bigram)
+	{
+		int separator = bigram.indexOf('_');
+		if(separator < 0) return false;
+		
+		return this.isInBindex(this.terms.getId(bigram.substring(0 , separator)) , this.terms.getId(bigram.substring(separator + 1)));
+	}
+	
+	
+	
+	
+	/**
+	 * Tells us whether the bigram of two words is in the BINDEX.
+	 * 
+	 * @param first The id of the first word , as it is returned by getTermId().
+	 * @param second The id of the second word.
+	 * 
+	 * @return true If both words have an id and their bigram is contained in the BINDEX , false otherwise.
+	 */
+	public boolean isInBindex(int first , int second)
+	{
+		return first >= 0 && second >= 0 && this.bindex.contains(pack(first , second));
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the id of a word that is a part of a char[]. Only the words of the BINDEX have an id.
+	 * 
+	 * @param buffer The chars.
+	 * @param offset The first char of the word.
+	 * @param length The length of the word.
+	 * 
+	 * @return id The id of the word , or -1 if the word is not in any bigram of the BINDEX.
+	 */
+	public int getTermId(char[] buffer , int offset , int length)
+	{
+		return this.terms.getId(buffer , offset , length);
+	}
+	
+	
+	
+	
+	/**
+	 * @return size The number of the bigrams of the BINDEX.
+	 */
+	public int getBindexSize()
+	{
+		return this.bindex.size();
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the approximate number of bytes that the ids of the words and the packed bigrams occupy in the heap.
+	 * 
+	 * @return The size of the BINDEX in bytes.
+	 */
+	public long bindexRamBytesUsed()
+	{
+		return this.terms.ramBytesUsed() + this.bindex.ramBytesUsed();
+	}
+	
+	
+	
+	
+	/**
+	 * Packs the ids of the two words of a bigram in a long.
+	 */
+	private static long pack(int first , int second)
+	{
+		return ((long)first << 32) | (second & 0xFFFFFFFFL);
+	}
+	
+	
+	
+	
+	/**
+	 * Reads all the non empty lines of a file.
+	 * 
+	 * @param path The path of the file.
+	 * 
+	 * @return words A set with the lines of the file.
+	 */
+	private static Set<String> readWords(String path)
+	{
+		Set<String> words = new HashSet<String>();
+		
+		try
+        {
+        	BufferedReader br = new BufferedReader(new FileReader(new File(path)));
+        	
+        	String word = br.readLine();
+        	
+        	while(word != null)
+        	{
+        		if(!word.equals("")) words.add(word);
+        		word = br.readLine();
+        	}
+        	
+        	br.close();
+        }
+        
+        catch(Exception e)
+        {
+        	System.err.println("Exception occured : " + e.getMessage());
+        }
+		
+		return words;
+	}
+}
\ No newline at end of file
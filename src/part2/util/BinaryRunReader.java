@@ -0,0 +1,191 @@
+package part2.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Reads a run that was written by a BinaryRunWriter , one result at a time :
+ *
+ *   while(reader.next()) { reader.getQueryId() , reader.getDocId() , reader.getRank() , reader.getScore() }
+ *
+ * The rank is counted again from the order of the records. A reader is not thread safe.
+ */
+public class BinaryRunReader implements Closeable
+{
+	
+	/**
+	 * The channel of the file.
+	 */
+	private FileChannel channel;
+	
+	/**
+	 * The buffer of the records that have been read from the file.
+	 */
+	private ByteBuffer buffer;
+	
+	/**
+	 * The id of the query of the current result.
+	 */
+	private int queryId;
+	
+	/**
+	 * The id of the document of the current result.
+	 */
+	private int docId;
+	
+	/**
+	 * The rank of the current result.
+	 */
+	private int rank;
+	
+	/**
+	 * The score of the current result.
+	 */
+	private float score;
+	
+	
+	
+	
+	/**
+	 * Constructor. Reads the header of the run.
+	 *
+	 * @param path The path of the file of the run.
+	 *
+	 * @throws IOException If the file can not be read , or it is not a binary run.
+	 */
+	public BinaryRunReader(String path) throws IOException
+	{
+		this.channel = new FileInputStream(path).getChannel();
+		this.buffer = ByteBuffer.allocate(BinaryRunWriter.RECORD_SIZE << 13);
+		this.buffer.flip();
+		this.queryId = -1;
+		this.rank = 0;
+		
+		if(!this.fill(8) || this.buffer.getInt() != BinaryRunWriter.MAGIC)
+		{
+			this.channel.close();
+			throw new IOException(path + " is not a binary run.");
+		}
+		
+		int version = this.buffer.getInt();
+		
+		if(version != BinaryRunWriter.VERSION)
+		{
+			this.channel.close();
+			throw new IOException(path + " has version " + version + " , only version " + BinaryRunWriter.VERSION + " can be read.");
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Moves to the next result.
+	 *
+	 * @return hasNext False if there are no more results.
+	 *
+	 * @throws IOException If the file can not be read , or its last record is cut.
+	 */
+	public boolean next() throws IOException
+	{
+		if(!this.fill(BinaryRunWriter.RECORD_SIZE))
+		{
+			if(this.buffer.hasRemaining()) throw new EOFException("The last record of the run is cut.");
+			
+			return false;
+		}
+		
+		int query = this.buffer.getInt();
+		
+		this.rank = query == this.queryId ? this.rank + 1 : 1;
+		this.queryId = query;
+		this.docId = this.buffer.getInt();
+		this.score = this.buffer.getFloat();
+		
+		return true;
+	}
+	
+	
+	
+	
+	/**
+	 * @return queryId The id of the query of the current result.
+	 */
+	public int getQueryId()
+	{
+		return this.queryId;
+	}
+	
+	
+	
+	
+	/**
+	 * @return docId The id of the medlars document of the current result.
+	 */
+	public int getDocId()
+	{
+		return this.docId;
+	}
+	
+	
+	
+	
+	/**
+	 * @return rank The rank of the current result , starting from 1 for every query.
+	 */
+	public int getRank()
+	{
+		return this.rank;
+	}
+	
+	
+	
+	
+	/**
+	 * @return score The score of the current result.
+	 */
+	public float getScore()
+	{
+		return this.score;
+	}
+	
+	
+	
+	
+	@Override
+	public void close() throws IOException
+	{
+		this.channel.close();
+	}
+	
+	
+	
+	
+	/**
+	 * Reads from the file until the buffer has at least the given number of bytes , or the file ends.
+	 *
+	 * @return enough False if the file ended first.
+	 */
+	private boolean fill(int bytes) throws IOException
+	{
+		if(this.buffer.remaining() >= bytes) return true;
+		
+		this.buffer.compact();
+		
+		while(this.buffer.position() < bytes)
+		{
+			if(this.channel.read(this.buffer) < 0) break;
+		}
+		
+		this.buffer.flip();
+		
+		return this.buffer.remaining() >= bytes;
+	}
+}
\ No newline at end of file
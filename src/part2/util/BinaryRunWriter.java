@@ -0,0 +1,118 @@
+package part2.util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Writes a run in a compact binary format. The file starts with MAGIC and VERSION (2 ints) , and then every result
+ * is a record of RECORD_SIZE bytes : the id of the query , the id of the document (ints) and the score (float).
+ * The rank is not written , it is the order of the records of a query. All the numbers are big endian.
+ * A line of the text format takes about 30 bytes , a record takes 12 and needs no formatting.
+ *
+ * The records are put in a reusable byte buffer , that is written to the file through a FileChannel when it is full.
+ * A writer is not thread safe. The runs are read back with a BinaryRunReader.
+ */
+public class BinaryRunWriter implements RunWriter
+{
+	
+	/**
+	 * The first int of a binary run , "RUN" and a 0 byte.
+	 */
+	public static final int MAGIC = 0x52554E00;
+	
+	/**
+	 * The version of the format.
+	 */
+	public static final int VERSION = 1;
+	
+	/**
+	 * The bytes of a result.
+	 */
+	public static final int RECORD_SIZE = 12;
+	
+	/**
+	 * The size of the buffer. It is a multiple of RECORD_SIZE.
+	 */
+	private static final int BUFFER_SIZE = RECORD_SIZE << 13;
+	
+	/**
+	 * The channel of the file.
+	 */
+	private FileChannel channel;
+	
+	/**
+	 * The buffer of the records that have not been written to the file yet.
+	 */
+	private ByteBuffer buffer;
+	
+	
+	
+	
+	/**
+	 * Constructor. Writes the header of the run.
+	 *
+	 * @param path The path of the file of the run.
+	 *
+	 * @throws IOException If the file can not be created.
+	 */
+	public BinaryRunWriter(String path) throws IOException
+	{
+		this.channel = new FileOutputStream(path).getChannel();
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		this.buffer.putInt(MAGIC).putInt(VERSION);
+	}
+	
+	
+	
+	
+	@Override
+	public void write(int queryId , int docId , int rank , float score) throws IOException
+	{
+		if(this.buffer.remaining() < RECORD_SIZE) this.flush();
+		
+		this.buffer.putInt(queryId).putInt(docId).putFloat(score);
+	}
+	
+	
+	
+	
+	/**
+	 * Writes the buffer to the file and empties it.
+	 *
+	 * @throws IOException If the buffer can not be written.
+	 */
+	public void flush() throws IOException
+	{
+		this.buffer.flip();
+		
+		while(this.buffer.hasRemaining())
+		{
+			this.channel.write(this.buffer);
+		}
+		
+		this.buffer.clear();
+	}
+	
+	
+	
+	
+	@Override
+	public void close() throws IOException
+	{
+		//Close the file even if the remaining bytes can not be written.
+		try
+		{
+			this.flush();
+		}
+		
+		finally
+		{
+			this.channel.close();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package part2.util;
+
+import java.io.Reader;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A reader of a CharSequence (e.g. a StringBuilder) that can be reset to read another one ,
+ * so a single reader is enough for all the documents of a thread.
+ */
+public class CharSequenceReader extends Reader
+{
+	
+	/**
+	 * The text that is read.
+	 */
+	private CharSequence text;
+	
+	/**
+	 * The position of the next char that will be read.
+	 */
+	private int pos;
+	
+	
+	
+	
+	/**
+	 * Constructor. The reader is empty until it is reset.
+	 */
+	public CharSequenceReader()
+	{
+		this.reset("");
+	}
+	
+	
+	
+	
+	/**
+	 * Starts reading a new text from its beginning.
+	 * 
+	 * @param text The text to be read.
+	 * 
+	 * @return This reader.
+	 */
+	public CharSequenceReader reset(CharSequence text)
+	{
+		this.text = text;
+		this.pos = 0;
+		
+		return this;
+	}
+	
+	
+	
+	
+	@Override
+	public int read(char[] cbuf , int off , int len)
+	{
+		if(len == 0) return 0;
+		
+		int end = Math.min(this.text.length() , this.pos + len);
+		
+		if(this.pos >= end) return -1;
+		
+		int n = end - this.pos;
+		
+		if(this.text instanceof StringBuilder)
+		{
+			((StringBuilder)this.text).getChars(this.pos , end , cbuf , off);
+		}
+		
+		else
+		{
+			for(int i = 0; i < n; i++)
+			{
+				cbuf[off + i] = this.text.charAt(this.pos + i);
+			}
+		}
+		
+		this.pos = end;
+		
+		return n;
+	}
+	
+	
+	
+	
+	@Override
+	public int read()
+	{
+		return this.pos < this.text.length() ? this.text.charAt(this.pos++) : -1;
+	}
+	
+	
+	
+	
+	@Override
+	public void close()
+	{
+		//Nothing to close , the reader can be reset and used again.
+	}
+}
\ No newline at end of file
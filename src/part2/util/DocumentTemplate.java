@@ -0,0 +1,85 @@
+package part2.util;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntField;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.TextField;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A Lucene Document with the fields "id" and "text" that is reused for every indexed document ,
+ * instead of creating a new Document and new fields each time. Only the values of the fields change.
+ * 
+ * The IndexWriter consumes the document before addDocument() returns , so a template can be reused
+ * right after that. A template is not thread safe , every indexing thread must have its own.
+ * 
+ * The id is also written as a doc value , so that the searchers can find the id of a hit without
+ * reading its stored fields (see MedlarsIds).
+ */
+public class DocumentTemplate
+{
+	
+	/**
+	 * The document that is given to the IndexWriter.
+	 */
+	private Document document;
+	
+	/**
+	 * The id of the document.
+	 */
+	private IntField id;
+	
+	/**
+	 * The id of the document , as a doc value.
+	 */
+	private NumericDocValuesField idValue;
+	
+	/**
+	 * The text of the document.
+	 */
+	private TextField text;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 */
+	public DocumentTemplate()
+	{
+		this.id = new IntField("id" , -1 , Field.Store.YES);
+		this.idValue = new NumericDocValuesField("id" , -1);
+		this.text = new TextField("text" , new StringReader(""));
+		
+		this.document = new Document();
+		this.document.add(this.id);
+		this.document.add(this.idValue);
+		this.document.add(this.text);
+	}
+	
+	
+	
+	
+	/**
+	 * Sets the values of the fields and returns the document.
+	 * 
+	 * @param id The id of the medlars document.
+	 * @param text A reader of the text that will be indexed.
+	 * 
+	 * @return document The same Document object every time , with the new values.
+	 */
+	public Document set(int id , Reader text)
+	{
+		this.id.setIntValue(id);
+		this.idValue.setLongValue(id);
+		this.text.setReaderValue(text);
+		
+		return this.document;
+	}
+}
\ No newline at end of file
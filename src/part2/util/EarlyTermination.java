@@ -0,0 +1,600 @@
+package part2.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreCachingWrappingScorer;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.similarities.DefaultSimilarity;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Finds the top k documents of a query without scoring all the documents that match it.
+ * While the documents of a segment are collected in order , the maximum score that any of the remaining documents of the
+ * segment could get is known. When it can not reach the k-th score found so far , the rest of the segment is skipped.
+ * The maximums are kept for every block of 64 documents of a segment , so that a block where the terms are rare has a low bound.
+ *
+ * With the DefaultSimilarity , the score of a document is at most the sum over the terms of the query of
+ * tf(maximum frequency of the term in the block) * idf^2 * boost * queryNorm , times the largest length norm of the block.
+ * A term that does not occur in the block adds nothing. For a BooleanQuery whose clauses are all terms , a document that matches m
+ * of its n clauses that are not prohibited is also multiplied by coord(m , n) , and m is at most the number of the terms that occur
+ * in the block , so the sum is also multiplied by the largest coord for that many terms. Nested queries have coords of their own ,
+ * which are at most 1 , so for them the bound leaves the coords out. It is exact , the results are the same as
+ * the results of a full search , but it only saves work when the short documents come first , which is what
+ * SimpleLuceneIndexer.setSortByLength() does.
+ *
+ * Only queries of terms (TermQuery and BooleanQuery of them) on one field and the DefaultSimilarity are supported.
+ * The other queries are searched in full. An object can be shared by many threads and by many readers.
+ */
+public class EarlyTermination
+{
+	
+	/**
+	 * A small margin for the bound , because the scorers add up the same floats in a different order.
+	 */
+	private static final float MARGIN = 1.0001f;
+	
+	/**
+	 * The number of the documents of a block , that have their own bound.
+	 */
+	private static final int BLOCK_SIZE = 64;
+	
+	/**
+	 * The field that we will be searching.
+	 */
+	private String field;
+	
+	/**
+	 * The bounds of every segment , by the core of its reader. An entry goes away with its segment.
+	 */
+	private Map<Object , SegmentBounds> segments;
+	
+	/**
+	 * The number of the documents that were collected.
+	 */
+	private AtomicLong collected;
+	
+	/**
+	 * The number of the segments that were left before their end.
+	 */
+	private AtomicLong terminated;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param field The field that we will be searching.
+	 */
+	public EarlyTermination(String field)
+	{
+		this.field = field;
+		this.segments = new WeakHashMap<Object , SegmentBounds>();
+		this.collected = new AtomicLong();
+		this.terminated = new AtomicLong();
+	}
+	
+	
+	
+	
+	/**
+	 * Finds the top k documents of a query.
+	 *
+	 * @param indexSearcher The IndexSearcher.
+	 * @param query The query.
+	 * @param k The number of the documents that we want to retrieve.
+	 *
+	 * @return topDocs The top k documents , the same as the ones of indexSearcher.search(query , k).
+	 *
+	 * @throws IOException If the index can not be read.
+	 */
+	public TopDocs search(IndexSearcher indexSearcher , Query query , int k) throws IOException
+	{
+		if(!(indexSearcher.getSimilarity() instanceof DefaultSimilarity)) return indexSearcher.search(query , k);
+		
+		//The terms of the query , with their boosts.
+		List<Term> terms = new ArrayList<Term>();
+		List<Float> boosts = new ArrayList<Float>();
+		
+		if(!this.flatten(indexSearcher.rewrite(query) , 1 , terms , boosts) || terms.isEmpty()) return indexSearcher.search(query , k);
+		
+		DefaultSimilarity similarity = (DefaultSimilarity)indexSearcher.getSimilarity();
+		IndexReader reader = indexSearcher.getIndexReader();
+		
+		//The weight of every term is idf^2 * boost * queryNorm , like the weight of a TermQuery.
+		float[] weights = new float[terms.size()];
+		float sumOfSquaredWeights = 0;
+		
+		for(int i = 0; i < weights.length; i++)
+		{
+			float idf = similarity.idf(reader.docFreq(terms.get(i)) , reader.maxDoc());
+			weights[i] = idf * idf * boosts.get(i);
+			sumOfSquaredWeights += (idf * boosts.get(i)) * (idf * boosts.get(i));
+		}
+		
+		float queryNorm = similarity.queryNorm(sumOfSquaredWeights);
+		
+		for(int i = 0; i < weights.length; i++)
+		{
+			weights[i] *= queryNorm;
+		}
+		
+		Terminator collector = new Terminator(similarity , terms , weights , coordClauses(indexSearcher.rewrite(query)) , k);
+		indexSearcher.search(query , collector);
+		
+		return collector.topDocs();
+	}
+	
+	
+	
+	
+	/**
+	 * @return collected The number of the documents that were collected.
+	 */
+	public long getCollected()
+	{
+		return this.collected.get();
+	}
+	
+	
+	
+	
+	/**
+	 * @return terminated The number of the segments that were left before their end.
+	 */
+	public long getTerminated()
+	{
+		return this.terminated.get();
+	}
+	
+	
+	
+	
+	/**
+	 * Adds the terms of a query to the lists , with the product of the boosts of the query and of the queries that contain it.
+	 *
+	 * @return supported False if the query is not a query of terms on the field.
+	 */
+	private boolean flatten(Query query , float boost , List<Term> terms , List<Float> boosts)
+	{
+		if(query instanceof TermQuery)
+		{
+			Term term = ((TermQuery)query).getTerm();
+			if(!term.field().equals(this.field)) return false;
+			
+			terms.add(term);
+			boosts.add(boost * query.getBoost());
+			
+			return true;
+		}
+		
+		if(query instanceof BooleanQuery)
+		{
+			for(BooleanClause clause : ((BooleanQuery)query).clauses())
+			{
+				//The prohibited clauses add nothing to the score.
+				if(clause.isProhibited()) continue;
+				
+				if(!this.flatten(clause.getQuery() , boost * query.getBoost() , terms , boosts)) return false;
+			}
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the n of the coord(m , n) of a query , which is the number of its clauses that are not prohibited ,
+	 * like in the BooleanWeight of Lucene. Only a BooleanQuery whose clauses are all TermQuery has a coord that is bounded.
+	 *
+	 * @return n The number of the clauses , or 0 if the bound must not use coords.
+	 */
+	private static int coordClauses(Query query)
+	{
+		if(!(query instanceof BooleanQuery) || ((BooleanQuery)query).isCoordDisabled()) return 0;
+		
+		int n = 0;
+		
+		for(BooleanClause clause : ((BooleanQuery)query).clauses())
+		{
+			if(!(clause.getQuery() instanceof TermQuery)) return 0;
+			
+			if(!clause.isProhibited()) n++;
+		}
+		
+		return n;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the bounds of a segment , that are computed the first time that the segment is searched.
+	 *
+	 * @return bounds The bounds , or null if the field of the segment has no norms.
+	 */
+	private SegmentBounds bounds(AtomicReader reader , DefaultSimilarity similarity) throws IOException
+	{
+		synchronized(this.segments)
+		{
+			SegmentBounds bounds = this.segments.get(reader.getCoreCacheKey());
+			if(bounds != null) return bounds;
+		}
+		
+		NumericDocValues norms = reader.getNormValues(this.field);
+		if(norms == null) return null;
+		
+		SegmentBounds bounds = new SegmentBounds(reader , norms , similarity);
+		
+		synchronized(this.segments)
+		{
+			this.segments.put(reader.getCoreCacheKey() , bounds);
+		}
+		
+		return bounds;
+	}
+	
+	
+	
+	
+	/**
+	 * What is known about a segment , for the bounds of the scores. The documents of the segment are split in blocks
+	 * of BLOCK_SIZE documents , and the maximums are kept for every block.
+	 */
+	private class SegmentBounds
+	{
+		
+		/**
+		 * The largest length norm of every block.
+		 */
+		private float[] maxNorms;
+		
+		/**
+		 * The maximum frequency in every block , for every term that was searched in the segment.
+		 */
+		private ConcurrentHashMap<Term , int[]> maxFreqs;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 */
+		public SegmentBounds(AtomicReader reader , NumericDocValues norms , DefaultSimilarity similarity)
+		{
+			this.maxNorms = new float[(reader.maxDoc() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+			this.maxFreqs = new ConcurrentHashMap<Term , int[]>();
+			
+			for(int doc = 0; doc < reader.maxDoc(); doc++)
+			{
+				int block = doc / BLOCK_SIZE;
+				this.maxNorms[block] = Math.max(this.maxNorms[block] , similarity.decodeNormValue(norms.get(doc)));
+			}
+		}
+		
+		
+		
+		
+		/**
+		 * @return blocks The number of the blocks of the segment.
+		 */
+		public int blocks()
+		{
+			return this.maxNorms.length;
+		}
+		
+		
+		
+		
+		/**
+		 * Returns the maximum frequency of a term in every block of the segment. It is found the first time that the term is searched.
+		 * The reader is not kept , because the segment is the key of the bounds in a weak map.
+		 */
+		public int[] maxFreqs(AtomicReader reader , Term term) throws IOException
+		{
+			int[] maxFreqs = this.maxFreqs.get(term);
+			if(maxFreqs != null) return maxFreqs;
+			
+			maxFreqs = new int[this.maxNorms.length];
+			DocsEnum docs = reader.termDocsEnum(term);
+			
+			if(docs != null)
+			{
+				int doc;
+				
+				while((doc = docs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS)
+				{
+					int block = doc / BLOCK_SIZE;
+					maxFreqs[block] = Math.max(maxFreqs[block] , docs.freq());
+				}
+			}
+			
+			this.maxFreqs.put(term , maxFreqs);
+			
+			return maxFreqs;
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Collects the top k documents and leaves a segment when its remaining documents can not enter them.
+	 */
+	private class Terminator extends Collector
+	{
+		
+		/**
+		 * The collector of the top k documents.
+		 */
+		private TopScoreDocCollector top;
+		
+		/**
+		 * The similarity of the searcher.
+		 */
+		private DefaultSimilarity similarity;
+		
+		/**
+		 * The terms of the query.
+		 */
+		private List<Term> terms;
+		
+		/**
+		 * The weight of every term.
+		 */
+		private float[] weights;
+		
+		/**
+		 * The largest coord of a document that matches at most m of the terms , for every m. All 1 if there is no coord.
+		 */
+		private float[] maxCoord;
+		
+		/**
+		 * The scores of the top k documents , as a min heap. The k-th score is the first one.
+		 */
+		private float[] heap;
+		
+		/**
+		 * The number of the scores in the heap.
+		 */
+		private int size;
+		
+		/**
+		 * The scorer of the current segment.
+		 */
+		private Scorer scorer;
+		
+		/**
+		 * The bounds of the current segment. It is null if the segment can not be left early.
+		 */
+		private SegmentBounds bounds;
+		
+		/**
+		 * For every block of the current segment , the bound of the score of the documents of it and of all the blocks after it.
+		 * It has one more element , 0 , for the end of the segment.
+		 */
+		private float[] maxScoreFrom;
+		
+		/**
+		 * The number of the documents collected in the current segment.
+		 */
+		private int count;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param coordClauses The n of the coord(m , n) of the query , or 0 if there is no coord.
+		 */
+		public Terminator(DefaultSimilarity similarity , List<Term> terms , float[] weights , int coordClauses , int k)
+		{
+			this.maxCoord = new float[weights.length + 1];
+			
+			for(int m = 1; m < this.maxCoord.length; m++)
+			{
+				this.maxCoord[m] = Math.max(this.maxCoord[m - 1] , coordClauses > 0 ? similarity.coord(m , coordClauses) : 1);
+			}
+			this.top = TopScoreDocCollector.create(k , true);
+			this.similarity = similarity;
+			this.terms = terms;
+			this.weights = weights;
+			this.heap = new float[k];
+		}
+		
+		
+		
+		
+		@Override
+		public void setScorer(Scorer scorer) throws IOException
+		{
+			//The score is computed once , for this collector and for the top collector.
+			this.scorer = new ScoreCachingWrappingScorer(scorer);
+			this.top.setScorer(this.scorer);
+		}
+		
+		
+		
+		
+		@Override
+		public void setNextReader(AtomicReaderContext context) throws IOException
+		{
+			this.top.setNextReader(context);
+			this.bounds = bounds(context.reader() , this.similarity);
+			
+			//The documents of the previous segment , if it was searched to its end.
+			collected.addAndGet(this.count);
+			this.count = 0;
+			
+			if(this.bounds != null)
+			{
+				int[][] maxFreqs = new int[this.terms.size()][];
+				
+				for(int i = 0; i < maxFreqs.length; i++)
+				{
+					maxFreqs[i] = this.bounds.maxFreqs(context.reader() , this.terms.get(i));
+				}
+				
+				this.maxScoreFrom = new float[this.bounds.blocks() + 1];
+				
+				for(int block = this.bounds.blocks() - 1; block >= 0; block--)
+				{
+					//Only the terms that occur in the block can be matched by its documents.
+					float sum = 0;
+					int matchable = 0;
+					
+					for(int i = 0; i < this.weights.length; i++)
+					{
+						if(maxFreqs[i][block] == 0) continue;
+						
+						sum += this.similarity.tf(maxFreqs[i][block]) * this.weights[i];
+						matchable++;
+					}
+					
+					float bound = this.maxCoord[matchable] * sum;
+					
+					this.maxScoreFrom[block] = Math.max(bound * this.bounds.maxNorms[block] * MARGIN , this.maxScoreFrom[block + 1]);
+				}
+			}
+		}
+		
+		
+		
+		
+		@Override
+		public void collect(int doc) throws IOException
+		{
+			float score = this.scorer.score();
+			this.top.collect(doc);
+			this.count++;
+			
+			//Keep the k best scores.
+			if(this.size < this.heap.length)
+			{
+				this.heap[this.size++] = score;
+				this.up(this.size - 1);
+			}
+			
+			else if(score > this.heap[0])
+			{
+				this.heap[0] = score;
+				this.down(0);
+			}
+			
+			//A later document with the same score as the k-th one would not enter the top k , because it has a larger id.
+			//The documents after this one are in its block and in the blocks after it , or in the next block if it is the last one of its block.
+			if(this.bounds != null && this.size == this.heap.length && this.maxScoreFrom[(doc + 1) / BLOCK_SIZE] <= this.heap[0])
+			{
+				collected.addAndGet(this.count);
+				terminated.incrementAndGet();
+				this.count = 0;
+				
+				throw new CollectionTerminatedException();
+			}
+		}
+		
+		
+		
+		
+		@Override
+		public boolean acceptsDocsOutOfOrder()
+		{
+			//The bound is valid only for the documents after the current one.
+			return false;
+		}
+		
+		
+		
+		
+		/**
+		 * @return topDocs The top k documents.
+		 */
+		public TopDocs topDocs()
+		{
+			collected.addAndGet(this.count);
+			
+			return this.top.topDocs();
+		}
+		
+		
+		
+		
+		/**
+		 * Moves a score of the heap up , to its place.
+		 */
+		private void up(int i)
+		{
+			while(i > 0 && this.heap[(i - 1) / 2] > this.heap[i])
+			{
+				this.swap(i , (i - 1) / 2);
+				i = (i - 1) / 2;
+			}
+		}
+		
+		
+		
+		
+		/**
+		 * Moves a score of the heap down , to its place.
+		 */
+		private void down(int i)
+		{
+			while(true)
+			{
+				int smallest = i;
+				int left = 2 * i + 1;
+				int right = left + 1;
+				
+				if(left < this.size && this.heap[left] < this.heap[smallest]) smallest = left;
+				if(right < this.size && this.heap[right] < this.heap[smallest]) smallest = right;
+				
+				if(smallest == i) return;
+				
+				this.swap(i , smallest);
+				i = smallest;
+			}
+		}
+		
+		
+		
+		
+		/**
+		 * Swaps two scores of the heap.
+		 */
+		private void swap(int i , int j)
+		{
+			float t = this.heap[i];
+			this.heap[i] = this.heap[j];
+			this.heap[j] = t;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+package part2.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class keeps a hash of the text of every document that is contained in an index ,
+ * by the document's medlars id. It is used to find which documents are new , changed or deleted
+ * since the last time the index was updated , so that only those documents have to be indexed again.
+ * 
+ * The manifest is stored in a file inside the index's directory.
+ * The hashes can be read and changed by many indexing threads at the same time.
+ */
+public class IndexManifest
+{
+	
+	/**
+	 * The name of the manifest file in the index's directory.
+	 */
+	public static final String FILE_NAME = "medlars.manifest";
+	
+	/**
+	 * The path of the manifest file.
+	 */
+	private File file;
+	
+	/**
+	 * The hash of every document's text , by the document's id.
+	 */
+	private Map<Integer , Long> hashes;
+	
+	
+	
+	
+	/**
+	 * Constructor. Reads the manifest of the index , if there is one.
+	 * 
+	 * @param indexPath The folder that the indexes are stored.
+	 */
+	public IndexManifest(String indexPath)
+	{
+		this.file = new File(indexPath , FILE_NAME);
+		this.hashes = new HashMap<Integer , Long>();
+		this.load();
+	}
+	
+	
+	
+	
+	/**
+	 * Computes a 64 bit FNV-1a hash of a text , without copying it.
+	 * 
+	 * @param text The text of a document.
+	 * 
+	 * @return hash The hash of the text.
+	 */
+	public static long hash(CharSequence text)
+	{
+		long hash = 0xcbf29ce484222325L;
+		
+		for(int i = 0; i < text.length(); i++)
+		{
+			hash ^= text.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		
+		return hash;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the hash that was stored for a document.
+	 * 
+	 * @param id The id of the document.
+	 * 
+	 * @return The hash of the document's text , or null if the document is not in the manifest.
+	 */
+	public synchronized Long get(int id)
+	{
+		return this.hashes.get(id);
+	}
+	
+	
+	
+	
+	/**
+	 * Stores the hash of a document's text.
+	 * 
+	 * @param id The id of the document.
+	 * @param hash The hash of the document's text.
+	 */
+	public synchronized void put(int id , long hash)
+	{
+		this.hashes.put(id , hash);
+	}
+	
+	
+	
+	
+	/**
+	 * Removes a document from the manifest.
+	 * 
+	 * @param id The id of the document.
+	 */
+	public synchronized void remove(int id)
+	{
+		this.hashes.remove(id);
+	}
+	
+	
+	
+	
+	/**
+	 * Removes all the documents from the manifest.
+	 */
+	public synchronized void clear()
+	{
+		this.hashes.clear();
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the ids of all the documents in the manifest.
+	 * 
+	 * @return The ids of the documents.
+	 */
+	public Iterable<Integer> ids()
+	{
+		return this.hashes.keySet();
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the number of documents in the manifest.
+	 * 
+	 * @return The number of documents.
+	 */
+	public synchronized int size()
+	{
+		return this.hashes.size();
+	}
+	
+	
+	
+	
+	/**
+	 * Writes the manifest to its file. It should be called only after the changes of the index have been committed.
+	 */
+	public void save()
+	{
+		File tmp = new File(this.file.getPath() + ".tmp");
+		
+		try
+		{
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			
+			out.writeInt(this.hashes.size());
+			
+			for(Map.Entry<Integer , Long> entry : this.hashes.entrySet())
+			{
+				out.writeInt(entry.getKey());
+				out.writeLong(entry.getValue());
+			}
+			
+			out.close();
+			
+			//Replace the old manifest only when the new one is complete.
+			if(this.file.exists() && !this.file.delete()) throw new Exception("Could not delete '" + this.file + "'.");
+			if(!tmp.renameTo(this.file)) throw new Exception("Could not rename '" + tmp + "' to '" + this.file + "'.");
+		}
+		
+		catch(Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Reads the manifest from its file. If there is no file , the manifest remains empty.
+	 */
+	private void load()
+	{
+		if(!this.file.isFile()) return;
+		
+		try
+		{
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)));
+			
+			int count = in.readInt();
+			
+			for(int i = 0; i < count; i++)
+			{
+				this.hashes.put(in.readInt() , in.readLong());
+			}
+			
+			in.close();
+		}
+		
+		catch(Exception e)
+		{
+			//A damaged manifest is ignored , so every document will be indexed again.
+			System.err.println("Exception occured : " + e.getMessage());
+			this.hashes.clear();
+		}
+	}
+}
\ No newline at end of file
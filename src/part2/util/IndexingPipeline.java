@@ -0,0 +1,384 @@
+package part2.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import part2.medlars.DocumentStore;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A producer/consumer pipeline that indexes the documents of a collection with many threads.
+ * The thread that reads the collection submits the documents while it reads them , and a number of
+ * worker threads take them from a bounded queue and index them , so reading and indexing overlap.
+ * 
+ * The documents are sent in batches , so that the queue is not accessed for every single document.
+ * Every batch is a small DocumentStore. When a worker has indexed a batch , the batch goes back to the reader
+ * to be filled again , so the pipeline holds at most a fixed number of batches and not the whole collection.
+ * 
+ * If a worker throws , the first failure is kept and the workers only take the remaining batches from the queue ,
+ * without indexing them , so that the reader is never blocked on a full queue. finish() then throws the failure.
+ */
+public class IndexingPipeline
+{
+	
+	/**
+	 * The work that a worker thread does for every document.
+	 */
+	public static interface Worker
+	{
+		/**
+		 * Indexes a document.
+		 * 
+		 * @param document A view positioned on the document.
+		 * 
+		 * @return true If the document was indexed , false if it could not be indexed.
+		 */
+		boolean index(DocumentStore.View document);
+	}
+	
+	
+	
+	
+	/**
+	 * Creates one Worker for every thread , so that each thread can keep its own objects.
+	 */
+	public static interface WorkerFactory
+	{
+		/**
+		 * Creates a new worker.
+		 * 
+		 * @return The worker of a thread.
+		 */
+		Worker newWorker();
+	}
+	
+	
+	
+	
+	/**
+	 * The number of documents in a batch.
+	 */
+	private static final int BATCH_SIZE = 64;
+	
+	/**
+	 * The initial number of characters of a batch. A medlars document has about 1,000 characters.
+	 */
+	private static final int BATCH_CHARACTERS = 1 << 16;
+	
+	/**
+	 * The number of batches that can wait in the queue. When it is full , the reader waits for the workers.
+	 */
+	private static final int QUEUE_CAPACITY = 16;
+	
+	/**
+	 * The batch that tells a worker that there are no more documents.
+	 */
+	private static final DocumentStore END = new DocumentStore(0 , 0);
+	
+	/**
+	 * The queue between the reader and the workers.
+	 */
+	private BlockingQueue<DocumentStore> queue;
+	
+	/**
+	 * The batches that have been indexed and can be filled again.
+	 */
+	private BlockingQueue<DocumentStore> free;
+	
+	/**
+	 * The worker threads.
+	 */
+	private Thread[] threads;
+	
+	/**
+	 * The batch that is being filled by the reader , or null if no document has been submitted since the last flush.
+	 */
+	private DocumentStore batch;
+	
+	/**
+	 * The number of batches that have been created.
+	 */
+	private int batches;
+	
+	/**
+	 * The number of documents that have been indexed.
+	 */
+	private AtomicInteger indexed;
+	
+	/**
+	 * The number of bytes that the worker threads allocated , or -1 if the JVM can not measure it.
+	 */
+	private AtomicLong allocatedBytes;
+	
+	/**
+	 * The first failure of a worker , or null if all the documents were indexed.
+	 */
+	private AtomicReference<Throwable> failure;
+	
+	
+	
+	
+	/**
+	 * Constructor. Starts the worker threads.
+	 * 
+	 * @param threads The number of worker threads.
+	 * @param factory Creates the worker of every thread.
+	 */
+	public IndexingPipeline(int threads , WorkerFactory factory)
+	{
+		this.threads = new Thread[Math.max(1 , threads)];
+		
+		//A batch is either being filled , waiting in the queue , indexed by a worker , or free.
+		this.queue = new ArrayBlockingQueue<DocumentStore>(QUEUE_CAPACITY);
+		this.free = new ArrayBlockingQueue<DocumentStore>(QUEUE_CAPACITY + this.threads.length + 1);
+		this.batch = null;
+		this.batches = 0;
+		this.indexed = new AtomicInteger();
+		this.allocatedBytes = new AtomicLong(allocatedBytesOfCurrentThread() < 0 ? -1 : 0);
+		this.failure = new AtomicReference<Throwable>();
+		
+		for(int i = 0; i < this.threads.length; i++)
+		{
+			this.threads[i] = new Thread(new WorkerLoop(factory.newWorker()) , "indexer-" + i);
+			this.threads[i].start();
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Submits a document to be indexed. The text is copied , so the caller can reuse it.
+	 * It blocks while the queue is full.
+	 * 
+	 * @param id The id of the document.
+	 * @param text The text of the document.
+	 * 
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public void submit(int id , CharSequence text) throws InterruptedException
+	{
+		if(this.batch == null) this.batch = this.nextBatch();
+		
+		this.batch.add(id , text);
+		
+		if(this.batch.size() == BATCH_SIZE) this.flush();
+	}
+	
+	
+	
+	
+	/**
+	 * Waits until all the submitted documents have been indexed and stops the workers.
+	 * 
+	 * @return The number of documents that were indexed.
+	 * 
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 * @throws RuntimeException If a worker failed. The exception of the worker is thrown , or is the cause if it was checked.
+	 */
+	public int finish() throws InterruptedException
+	{
+		this.flush();
+		
+		for(int i = 0; i < this.threads.length; i++)
+		{
+			this.queue.put(END);
+		}
+		
+		for(Thread thread : this.threads)
+		{
+			thread.join();
+		}
+		
+		Throwable t = this.failure.get();
+		
+		if(t instanceof RuntimeException) throw (RuntimeException)t;
+		if(t instanceof Error) throw (Error)t;
+		if(t != null) throw new RuntimeException("A worker failed to index the documents." , t);
+		
+		return this.indexed.get();
+	}
+	
+	
+	
+	
+	/**
+	 * @return threads The number of worker threads.
+	 */
+	public int getThreads()
+	{
+		return this.threads.length;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the number of bytes that the worker threads allocated while indexing.
+	 * It should be called after finish().
+	 * 
+	 * @return The allocated bytes , or -1 if the JVM can not measure them.
+	 */
+	public long getAllocatedBytes()
+	{
+		return this.allocatedBytes.get();
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the number of bytes that the current thread has allocated since it started ,
+	 * or -1 if the JVM does not support this measurement.
+	 */
+	private static long allocatedBytesOfCurrentThread()
+	{
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		
+		if(!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+		
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+		
+		if(!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) return -1;
+		
+		return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	
+	
+	
+	/**
+	 * Returns an empty batch. A free batch is reused if there is one , otherwise a new batch is created
+	 * until there is one for every place in the queue , every worker and the reader ,
+	 * and then the reader waits for a worker to free one.
+	 */
+	private DocumentStore nextBatch() throws InterruptedException
+	{
+		DocumentStore store = this.free.poll();
+		
+		if(store == null && this.batches < QUEUE_CAPACITY + this.threads.length + 1)
+		{
+			this.batches++;
+			
+			return new DocumentStore(BATCH_SIZE , BATCH_CHARACTERS);
+		}
+		
+		if(store == null) store = this.free.take();
+		
+		store.clear();
+		
+		return store;
+	}
+	
+	
+	
+	
+	/**
+	 * Sends the current batch to the workers.
+	 */
+	private void flush() throws InterruptedException
+	{
+		if(this.batch == null) return;
+		
+		this.queue.put(this.batch);
+		this.batch = null;
+	}
+	
+	
+	
+	
+	/**
+	 * The loop of a worker thread. It indexes batches until it takes the END batch.
+	 * After a failure of any worker , it only drains the queue. Every batch is given back to the reader.
+	 */
+	private class WorkerLoop implements Runnable
+	{
+		
+		/**
+		 * The worker of this thread.
+		 */
+		private Worker worker;
+		
+		
+		
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param worker The worker of this thread.
+		 */
+		public WorkerLoop(Worker worker)
+		{
+			this.worker = worker;
+		}
+		
+		
+		
+		
+		@Override
+		public void run()
+		{
+			long allocatedBefore = allocatedBytesOfCurrentThread();
+			
+			try
+			{
+				DocumentStore batch;
+				
+				while((batch = queue.take()) != END)
+				{
+					try
+					{
+						if(failure.get() == null) indexed.addAndGet(this.index(batch));
+					}
+					
+					catch(Throwable t)
+					{
+						//Keep only the first failure , and keep taking batches so that the reader does not block.
+						failure.compareAndSet(null , t);
+					}
+					
+					finally
+					{
+						free.put(batch);
+					}
+				}
+			}
+			
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			
+			if(allocatedBefore >= 0) allocatedBytes.addAndGet(allocatedBytesOfCurrentThread() - allocatedBefore);
+		}
+		
+		
+		
+		
+		/**
+		 * Indexes the documents of a batch.
+		 * 
+		 * @return The number of documents that were indexed.
+		 */
+		private int index(DocumentStore batch)
+		{
+			DocumentStore.View document = batch.view();
+			
+			int count = 0;
+			
+			while(document.next())
+			{
+				if(this.worker.index(document)) count++;
+			}
+			
+			return count;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package part2.util;
+
+import java.util.Arrays;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * A set of non negative longs , kept in a hash table with open addressing. A key is not boxed , so looking it up
+ * is a few reads of a long[] and creates no object. A set that is not modified anymore can be shared by many threads.
+ */
+public class LongHashSet
+{
+	
+	/**
+	 * The value of an empty slot. The keys can not be negative , so it is never a key.
+	 */
+	private static final long EMPTY = -1;
+	
+	/**
+	 * The hash table. It is never more than half full.
+	 */
+	private long[] keys;
+	
+	/**
+	 * The number of the keys.
+	 */
+	private int size;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 */
+	public LongHashSet()
+	{
+		this.keys = new long[64];
+		Arrays.fill(this.keys , EMPTY);
+	}
+	
+	
+	
+	
+	/**
+	 * Adds a key.
+	 *
+	 * @param key The key. It must not be negative.
+	 *
+	 * @return added False if the key was already in the set.
+	 */
+	public boolean add(long key)
+	{
+		if(key < 0) throw new IllegalArgumentException("Negative key : " + key);
+		
+		int slot = this.find(key);
+		
+		if(this.keys[slot] == key) return false;
+		
+		this.keys[slot] = key;
+		this.size++;
+		
+		if(2 * this.size > this.keys.length) this.rehash();
+		
+		return true;
+	}
+	
+	
+	
+	
+	/**
+	 * @param key The key.
+	 *
+	 * @return true If the key is in the set , false otherwise.
+	 */
+	public boolean contains(long key)
+	{
+		return key >= 0 && this.keys[this.find(key)] == key;
+	}
+	
+	
+	
+	
+	/**
+	 * @return size The number of the keys.
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the approximate number of bytes that the table occupies in the heap.
+	 *
+	 * @return The size of the set in bytes.
+	 */
+	public long ramBytesUsed()
+	{
+		//The array has a header of 16 bytes.
+		return 16 + 8L * this.keys.length;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the slot that has the key , or the empty slot where the key should be added.
+	 */
+	private int find(long key)
+	{
+		int mask = this.keys.length - 1;
+		int slot = hash(key) & mask;
+		
+		while(this.keys[slot] != EMPTY && this.keys[slot] != key)
+		{
+			slot = (slot + 1) & mask;
+		}
+		
+		return slot;
+	}
+	
+	
+	
+	
+	/**
+	 * Doubles the table and puts the keys in their new slots.
+	 */
+	private void rehash()
+	{
+		long[] old = this.keys;
+		
+		this.keys = new long[2 * old.length];
+		Arrays.fill(this.keys , EMPTY);
+		
+		for(long key : old)
+		{
+			if(key != EMPTY) this.keys[this.find(key)] = key;
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Mixes the bits of a key , so that the low bits can be used as a slot.
+	 */
+	private static int hash(long key)
+	{
+		key *= 0x9E3779B97F4A7C15L;
+		
+		return (int)(key ^ (key >>> 32));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package part2.util;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.util.Bits;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Finds the medlars id of a Lucene document from the "id" doc values of its segment , that the indexers write
+ * next to the stored "id" field. Reading a doc value is a lookup in memory , while reading a stored field
+ * decompresses a whole block of stored documents.
+ *
+ * The documents that were indexed before the doc values were added do not have them , even when an incremental update
+ * has merged them in a segment with newer documents. For these , the stored field is read , the way it used to.
+ * 
+ * An object is bound to one IndexReader and must be used by one thread only : the doc values of a segment may be read
+ * through a stateful input of the directory , that Lucene does not allow to share between threads.
+ * Every thread must create its own object.
+ */
+public class MedlarsIds
+{
+	
+	/**
+	 * The name of the field of the id.
+	 */
+	public static final String FIELD = "id";
+	
+	/**
+	 * The only stored field that is loaded when a segment has no doc values.
+	 */
+	private static final Set<String> FIELDS_TO_LOAD = Collections.singleton(FIELD);
+	
+	/**
+	 * The reader of the index.
+	 */
+	private IndexReader reader;
+	
+	/**
+	 * The segments of the index.
+	 */
+	private List<AtomicReaderContext> leaves;
+	
+	/**
+	 * The ids of every segment. An element is null if the segment has no doc values.
+	 */
+	private NumericDocValues[] values;
+	
+	/**
+	 * The documents of every segment that have doc values. An element is null if the segment has no doc values.
+	 */
+	private Bits[] docsWithValues;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param reader The reader of the index.
+	 *
+	 * @throws IOException If the doc values can not be read.
+	 */
+	public MedlarsIds(IndexReader reader) throws IOException
+	{
+		this.reader = reader;
+		this.leaves = reader.leaves();
+		this.values = new NumericDocValues[this.leaves.size()];
+		this.docsWithValues = new Bits[this.leaves.size()];
+		
+		for(int i = 0; i < this.values.length; i++)
+		{
+			this.values[i] = this.leaves.get(i).reader().getNumericDocValues(FIELD);
+			this.docsWithValues[i] = this.leaves.get(i).reader().getDocsWithField(FIELD);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the medlars id of a document.
+	 *
+	 * @param doc The id of the document in the whole index , as it is found in a ScoreDoc.
+	 *
+	 * @return id The medlars id of the document.
+	 *
+	 * @throws IOException If the stored field has to be read and it can not be.
+	 */
+	public int get(int doc) throws IOException
+	{
+		int leaf = this.leaves.size() == 1 ? 0 : ReaderUtil.subIndex(doc , this.leaves);
+		NumericDocValues ids = this.values[leaf];
+		int segmentDoc = doc - this.leaves.get(leaf).docBase;
+		
+		if(ids != null && this.docsWithValues[leaf].get(segmentDoc))
+		{
+			return (int)ids.get(segmentDoc);
+		}
+		
+		//An older document , without doc values.
+		return Integer.parseInt(this.reader.document(doc , FIELDS_TO_LOAD).get(FIELD));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package part2.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Writes the results of the queries (a run) to a file , one result at a time.
+ * The results of a query must be written together , from the first rank to the last.
+ */
+public interface RunWriter extends Closeable
+{
+	
+	/**
+	 * The formats of the runs.
+	 */
+	public static enum Format
+	{
+		/**
+		 * The text format of Trec Eval , "query 0 document rank score tag" on every line.
+		 */
+		TREC
+		{
+			@Override
+			public RunWriter open(String path) throws IOException
+			{
+				return new TrecRunWriter(path);
+			}
+			
+			@Override
+			public String path(String trecPath)
+			{
+				return trecPath;
+			}
+		},
+		
+		/**
+		 * A compact binary format , see BinaryRunWriter.
+		 */
+		BINARY
+		{
+			@Override
+			public RunWriter open(String path) throws IOException
+			{
+				return new BinaryRunWriter(path);
+			}
+			
+			@Override
+			public String path(String trecPath)
+			{
+				int dot = trecPath.lastIndexOf('.');
+				
+				return (dot > trecPath.lastIndexOf('/') ? trecPath.substring(0 , dot) : trecPath) + ".run";
+			}
+		};
+		
+		
+		
+		
+		/**
+		 * Creates a writer of a run in this format.
+		 *
+		 * @param path The path of the file of the run.
+		 *
+		 * @return writer The writer.
+		 *
+		 * @throws IOException If the file can not be created.
+		 */
+		public abstract RunWriter open(String path) throws IOException;
+		
+		
+		
+		
+		/**
+		 * Returns the path of the file of a run in this format.
+		 *
+		 * @param trecPath The path of the run in the text format of Trec Eval.
+		 *
+		 * @return path The same path , with the extension of this format.
+		 */
+		public abstract String path(String trecPath);
+	}
+	
+	
+	
+	
+	/**
+	 * Writes a result.
+	 *
+	 * @param queryId The id of the query.
+	 * @param docId The id of the medlars document.
+	 * @param rank The rank of the document for the query , starting from 1.
+	 * @param score The score of the document for the query.
+	 *
+	 * @throws IOException If the result can not be written.
+	 */
+	void write(int queryId , int docId , int rank , float score) throws IOException;
+}
\ No newline at end of file
@@ -1,197 +1,388 @@
-package part2.util;
-
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.StringTokenizer;
-
-import part1.stemming.PorterStemmer;
-
-
-
-
-
-/**
- * @author Stamatis Pitsios
- *
- * This class is used to provide some functions to analyze our documents.
- * It will be used for the second part to add the bigrams to index.
- */
-public class SimpleAnalyzer 
-{
-
-	/**
-	 * A set that will hold all the stop words.
-	 */
-	private Set<String> stopwords;
-	
-	/**
-	 * The bindex that contain wikipedia's bigrams.
-	 */
-	private Set<String> bindex;
-	
-	/** 
-     * Porter Stemmer object. 
-     */
-    private PorterStemmer stemmer;
-    
-    
-    
-    
-    /**
-     * Constructor.
-     */
-    public SimpleAnalyzer() 
-    {
-		
-		this.stopwords = new HashSet<String>();
-		this.fillStopwordsList();
-		
-		this.bindex = new HashSet<String>();
-		this.loadBINDEX();
-		
-		this.stemmer = new PorterStemmer();
-	}
-    
-    
-    
-    
-    /**
-	 * This functions gets as input a text and returns a list with all
-	 * the words that were found in it , after applying stemming and 
-	 * stop words removal. This will be useful for adding single words
-	 * and bigrams in the index.
-	 * 
-	 * @param text The text to be tokenized.
-	 * 
-	 * @return words A set of the words of the text , stemmed and with removed stopwords.
-	 */
-	public List<String> wordsOfText(String text)
-	{
-		List<String> words = new ArrayList<String>();
-		
-		StringTokenizer tok = new StringTokenizer(text , "[- :]+");
-		
-		while(tok.hasMoreTokens())
-		{
-			String token = tok.nextToken();
-			
-			if(stopwords.contains(token.trim())) continue;
-			
-			String stemmed = this.stem(token);
-			
-			words.add(stemmed);
-		}
-		
-		return words;
-	}
-	
-	
-	
-	
-	/**
-	 * Given a String , this method tells us whether it is contained in our BINDEX or not.
-	 * 
-	 * @param bigram The bigram that we want to check if it is in our BINDEX.
-	 * 
-	 * @return true If the bigram is contained in the BINDEX , false otherwise.
-	 */
-	public boolean isInBindex(String bigram)
-	{
-		return this.bindex.contains(bigram);
-	}
-	
-	
-	
-	
-	/**
-     * Opens the stopwords file and adds that words to the set.
-     */ 
-    private void fillStopwordsList() 
-    {
-        try
-        {
-        	BufferedReader br = new BufferedReader(new FileReader(new File("stopwords/stopwords.txt")));
-        	
-        	String word = br.readLine();
-        	
-        	while(word != null)
-        	{
-        		word.trim();
-        		if(!word.equals("")) this.stopwords.add(word);
-        		word = br.readLine();
-        	}
-        	
-        	br.close();
-        }
-        
-        catch(Exception e)
-        {
-        	System.err.println("Exception occured : " + e.getMessage());
-        }
-    }
-    
-    
-    
-    
-    /**
-     * Reads the bigrams from the file.
-     */
-    private void loadBINDEX()
-    {
-    	 try
-         {
-         	BufferedReader br = new BufferedReader(new FileReader(new File("bindex/BINDEX.txt")));
-         	
-         	String word = br.readLine();
-         	
-         	while(word != null)
-         	{
-         		word.trim();
-         		if(!word.equals("")) this.bindex.add(word);
-         		word = br.readLine();
-         	}
-         	
-         	br.close();
-         }
-         
-         catch(Exception e)
-         {
-         	System.err.println("Exception occured : " + e.getMessage());
-         }
-    }
-    
-    
-    
-    
-    /**
-     * Stems a word.
-     * 
-     * @param word-the word to stem
-     * 
-     * @returns String stemmed_word-the stemmed word
-     */    
-    private String stem(String word)
-    {
-        char[] w = word.toCharArray();
-        
-        for (int c = 0; c < w.length; c++)
-        {
-            Character ch = w[c];
-            
-            Character.toLowerCase(ch);
-            
-            if (Character.isLetter(ch) || Character.isDigit(ch)) 
-            {
-                stemmer.add(ch);
-            }
-        }
-        stemmer.stem();
-        String stemmed_word = stemmer.toString();
-        return stemmed_word;
-    }
-}
\ No newline at end of file
+package part2.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import part1.stemming.PorterStemmer;
+import part1.stemming.StemCache;
+
+
+
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * This class is used to provide some functions to analyze our documents.
+ * It will be used for the second part to add the bigrams to index.
+ * 
+ * The words of a text can be read one at a time , without creating any object for a word :
+ * 
+ *   analyzer.reset(text);
+ *   while(analyzer.next()) { analyzer.getWordBuffer() , analyzer.getWordLength() , analyzer.isBigramInBindex() }
+ * 
+ * The word is a part of a char[] that is reused for every word , and the previous word is kept too ,
+ * with the ids that the BigramDictionary gives to them , so that the bigram of the two words can be looked up in the BINDEX. wordsOfText() returns the same words as Strings.
+ */
+public class SimpleAnalyzer 
+{
+
+	/**
+	 * The stop words and the BINDEX. They are shared with the other analyzers.
+	 */
+	private BigramDictionary dictionary;
+	
+	/** 
+     * Porter Stemmer object. It is not thread safe , so every analyzer has its own.
+     */
+    private PorterStemmer stemmer;
+    
+    /**
+     * The stems of the words that were seen lately. It is shared with the other analyzers.
+     */
+    private StemCache cache;
+    
+    /**
+     * The chars that separate the words.
+     */
+    private static final String DELIMITERS = "[- :]+";
+    
+    /**
+     * The text that is analyzed.
+     */
+    private CharSequence text;
+    
+    /**
+     * The position in the text where the next word is searched from.
+     */
+    private int position;
+    
+    /**
+     * The chars of the current token , as they are in the text.
+     */
+    private char[] token;
+    
+    /**
+     * The current word , stemmed.
+     */
+    private char[] word;
+    
+    /**
+     * The length of the current word.
+     */
+    private int wordLength;
+    
+    /**
+     * The previous word , stemmed.
+     */
+    private char[] previous;
+    
+    /**
+     * The length of the previous word , or -1 if the current word is the first one of the text.
+     */
+    private int previousLength;
+    
+    /**
+     * The id of the current word in the BigramDictionary , or -1 if it is not a word of the BINDEX.
+     */
+    private int wordId;
+    
+    /**
+     * The id of the previous word in the BigramDictionary , or -1 if it is not a word of the BINDEX or there is no previous word.
+     */
+    private int previousId;
+    
+    
+    
+    
+    /**
+     * Constructor. Uses the dictionary of the default stop words and BINDEX files.
+     */
+    public SimpleAnalyzer() 
+    {
+		this(BigramDictionary.getDefault());
+	}
+    
+    
+    
+    
+    /**
+     * Overloaded constructor. A SimpleAnalyzer must be used by one thread at a time ,
+     * so every thread should create its own analyzer with the same dictionary.
+     * 
+     * @param dictionary The stop words and the BINDEX.
+     */
+    public SimpleAnalyzer(BigramDictionary dictionary) 
+    {
+		this(dictionary , StemCache.getDefault());
+	}
+    
+    
+    
+    
+    /**
+     * Overloaded constructor.
+     * 
+     * @param dictionary The stop words and the BINDEX.
+     * @param cache The cache of the stems , that can be shared by many analyzers.
+     */
+    public SimpleAnalyzer(BigramDictionary dictionary , StemCache cache) 
+    {
+		this.dictionary = dictionary;
+		this.cache = cache;
+		this.stemmer = new PorterStemmer();
+		this.token = new char[32];
+		this.word = new char[32];
+		this.previous = new char[32];
+		this.reset("");
+	}
+    
+    
+    
+    
+    /**
+	 * This functions gets as input a text and returns a list with all
+	 * the words that were found in it , after applying stemming and 
+	 * stop words removal. This will be useful for adding single words
+	 * and bigrams in the index.
+	 * 
+	 * @param text The text to be tokenized.
+	 * 
+	 * @return words A set of the words of the text , stemmed and with removed stopwords.
+	 */
+	public List<String> wordsOfText(String text)
+	{
+		List<String> words = new ArrayList<String>();
+		
+		this.reset(text);
+		
+		while(this.next())
+		{
+			words.add(new String(this.word , 0 , this.wordLength));
+		}
+		
+		return words;
+	}
+	
+	
+	
+	
+	/**
+	 * Starts to analyze a text. The text is not copied , so it must not change until all its words are read.
+	 * 
+	 * @param text The text.
+	 */
+	public void reset(CharSequence text)
+	{
+		this.text = text;
+		this.position = 0;
+		
+		//There is no word yet , so the first word will have no previous one.
+		this.wordLength = -1;
+		this.previousLength = -1;
+		this.wordId = -1;
+		this.previousId = -1;
+	}
+	
+	
+	
+	
+	/**
+	 * Moves to the next word of the text. The tokens are separated by the chars of DELIMITERS , the stop words are skipped ,
+	 * and the letters and the digits of every other token are stemmed.
+	 * 
+	 * @return found False if there are no more words.
+	 */
+	public boolean next()
+	{
+		int length = this.text.length();
+		
+		while(this.position < length)
+		{
+			//Skip the delimiters.
+			while(this.position < length && DELIMITERS.indexOf(this.text.charAt(this.position)) >= 0) this.position++;
+			
+			if(this.position == length) break;
+			
+			//Copy the token.
+			int tokenLength = 0;
+			
+			while(this.position < length)
+			{
+				char c = this.text.charAt(this.position);
+				if(DELIMITERS.indexOf(c) >= 0) break;
+				
+				if(tokenLength == this.token.length) this.token = grow(this.token , tokenLength);
+				this.token[tokenLength++] = c;
+				this.position++;
+			}
+			
+			//The stop words are looked up without the white space around them.
+			int start = 0 , end = tokenLength;
+			while(start < end && this.token[start] <= ' ') start++;
+			while(end > start && this.token[end - 1] <= ' ') end--;
+			
+			if(this.dictionary.isStopword(this.token , start , end - start)) continue;
+			
+			this.stem(this.token , tokenLength);
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	
+	
+	
+	/**
+	 * @return word The chars of the current word , from 0 to getWordLength(). The array is reused for the next words.
+	 */
+	public char[] getWordBuffer()
+	{
+		return this.word;
+	}
+	
+	
+	
+	
+	/**
+	 * @return wordLength The length of the current word.
+	 */
+	public int getWordLength()
+	{
+		return this.wordLength;
+	}
+	
+	
+	
+	
+	/**
+	 * @return previous The chars of the previous word , from 0 to getPreviousLength(). The array is reused for the next words.
+	 */
+	public char[] getPreviousBuffer()
+	{
+		return this.previous;
+	}
+	
+	
+	
+	
+	/**
+	 * @return previousLength The length of the previous word , or -1 if the current word is the first one of the text.
+	 */
+	public int getPreviousLength()
+	{
+		return this.previousLength;
+	}
+	
+	
+	
+	
+	/**
+	 * Tells us whether the bigram of the previous and the current word is contained in the BINDEX.
+	 * 
+	 * @return true If there is a previous word and the bigram is contained in the BINDEX , false otherwise.
+	 */
+	public boolean isBigramInBindex()
+	{
+		return this.dictionary.isInBindex(this.previousId , this.wordId);
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the bigram of the previous and the current word , "previous_word" , the way it is written in the BINDEX.
+	 * 
+	 * @return bigram The bigram as a String.
+	 */
+	public String getBigram()
+	{
+		StringBuilder sb = new StringBuilder(this.previousLength + 1 + this.wordLength);
+		
+		return sb.append(this.previous , 0 , Math.max(this.previousLength , 0)).append('_').append(this.word , 0 , this.wordLength).toString();
+	}
+	
+	
+	
+	
+	/**
+	 * Appends the previous and the current word glued together , the way the bigrams are added to the index.
+	 * 
+	 * @param sb The builder.
+	 * 
+	 * @return sb The same builder.
+	 */
+	public StringBuilder appendGluedBigram(StringBuilder sb)
+	{
+		return sb.append(this.previous , 0 , Math.max(this.previousLength , 0)).append(this.word , 0 , this.wordLength);
+	}
+	
+	
+	
+	
+	/**
+	 * Given a String , this method tells us whether it is contained in our BINDEX or not.
+	 * 
+	 * @param bigram The bigram that we want to check if it is in our BINDEX.
+	 * 
+	 * @return true If the bigram is contained in the BINDEX , false otherwise.
+	 */
+	public boolean isInBindex(String bigram)
+	{
+		return this.dictionary.isInBindex(bigram);
+	}
+	
+	
+	
+	
+    /**
+     * Stems the letters and the digits of a token into the current word. The current word becomes the previous one.
+     * Most words have been seen before , so their stem is found in the cache.
+     * 
+     * @param chars The chars of the token. The letters and the digits are moved to its start.
+     * @param length The length of the token.
+     */    
+    private void stem(char[] chars , int length)
+    {
+        int letters = 0;
+        
+        for(int c = 0; c < length; c++)
+        {
+            if(Character.isLetter(chars[c]) || Character.isDigit(chars[c]))
+            {
+                chars[letters++] = chars[c];
+            }
+        }
+        
+        String stem = this.cache.stem(chars , letters , this.stemmer);
+        
+        //Swap the buffers , so the current word is kept as the previous one without copying it.
+        char[] swap = this.previous;
+        this.previous = this.word;
+        this.previousLength = this.wordLength;
+        this.previousId = this.wordId;
+        this.word = swap;
+        
+        this.wordLength = stem.length();
+        if(this.wordLength > this.word.length) this.word = new char[this.wordLength];
+        stem.getChars(0 , this.wordLength , this.word , 0);
+        
+        //The id is found once for every word , instead of once for every bigram that it is part of.
+        this.wordId = this.dictionary.getTermId(this.word , 0 , this.wordLength);
+    }
+    
+    
+    
+    
+    /**
+     * Returns a copy of an array with twice its length.
+     */
+    private static char[] grow(char[] array , int length)
+    {
+        char[] bigger = new char[array.length * 2];
+        System.arraycopy(array , 0 , bigger , 0 , length);
+        return bigger;
+    }
+}
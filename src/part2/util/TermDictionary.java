@@ -0,0 +1,223 @@
+package part2.util;
+
+import java.util.Arrays;
+
+import part1.stemming.WordHash;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Gives an int id to every term that is added to it , starting from 0. The chars of all the terms are kept in one char[] ,
+ * and the ids in a hash table with open addressing , so a term is not an object and it can be looked up from a part
+ * of a char[] without creating a String. A dictionary that is not modified anymore can be shared by many threads.
+ */
+public class TermDictionary
+{
+	
+	/**
+	 * The value of an empty slot of the table.
+	 */
+	private static final int EMPTY = -1;
+	
+	/**
+	 * The chars of all the terms , one after the other.
+	 */
+	private char[] chars;
+	
+	/**
+	 * The position of every term in chars. The term with id i is from offsets[i] up to offsets[i + 1].
+	 */
+	private int[] offsets;
+	
+	/**
+	 * The number of the terms.
+	 */
+	private int size;
+	
+	/**
+	 * The hash table with the ids of the terms. It is never more than half full.
+	 */
+	private int[] table;
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 */
+	public TermDictionary()
+	{
+		this.chars = new char[256];
+		this.offsets = new int[33];
+		this.table = new int[64];
+		Arrays.fill(this.table , EMPTY);
+	}
+	
+	
+	
+	
+	/**
+	 * Adds a term , if it is not in the dictionary.
+	 *
+	 * @param term The term.
+	 *
+	 * @return id The id of the term.
+	 */
+	public int add(String term)
+	{
+		char[] buffer = term.toCharArray();
+		int slot = this.find(buffer , 0 , buffer.length);
+		
+		if(this.table[slot] != EMPTY) return this.table[slot];
+		
+		int start = this.offsets[this.size];
+		
+		if(start + buffer.length > this.chars.length) this.chars = Arrays.copyOf(this.chars , Math.max(2 * this.chars.length , start + buffer.length));
+		if(this.size + 2 > this.offsets.length) this.offsets = Arrays.copyOf(this.offsets , 2 * this.offsets.length);
+		
+		System.arraycopy(buffer , 0 , this.chars , start , buffer.length);
+		
+		int id = this.size++;
+		this.offsets[this.size] = start + buffer.length;
+		this.table[slot] = id;
+		
+		if(2 * this.size > this.table.length) this.rehash();
+		
+		return id;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the id of a term.
+	 *
+	 * @param term The term.
+	 *
+	 * @return id The id of the term , or -1 if it is not in the dictionary.
+	 */
+	public int getId(String term)
+	{
+		char[] buffer = term.toCharArray();
+		
+		return this.getId(buffer , 0 , buffer.length);
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the id of a term that is a part of a char[].
+	 *
+	 * @param buffer The chars.
+	 * @param offset The first char of the term.
+	 * @param length The length of the term.
+	 *
+	 * @return id The id of the term , or -1 if it is not in the dictionary.
+	 */
+	public int getId(char[] buffer , int offset , int length)
+	{
+		return this.table[this.find(buffer , offset , length)];
+	}
+	
+	
+	
+	
+	/**
+	 * @param id The id of a term.
+	 *
+	 * @return term The term.
+	 */
+	public String getTerm(int id)
+	{
+		return new String(this.chars , this.offsets[id] , this.offsets[id + 1] - this.offsets[id]);
+	}
+	
+	
+	
+	
+	/**
+	 * @return size The number of the terms.
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the approximate number of bytes that the arrays of the dictionary occupy in the heap.
+	 *
+	 * @return The size of the dictionary in bytes.
+	 */
+	public long ramBytesUsed()
+	{
+		//Every array has a header of 16 bytes.
+		return 3 * 16 + 2L * this.chars.length + 4L * this.offsets.length + 4L * this.table.length;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns the slot of the table that has the id of a term , or the empty slot where the term should be added.
+	 */
+	private int find(char[] buffer , int offset , int length)
+	{
+		int mask = this.table.length - 1;
+		int slot = WordHash.hash(buffer , offset , length) & mask;
+		
+		while(this.table[slot] != EMPTY && !this.equals(this.table[slot] , buffer , offset , length))
+		{
+			slot = (slot + 1) & mask;
+		}
+		
+		return slot;
+	}
+	
+	
+	
+	
+	/**
+	 * Tells us whether the term with the given id has the given chars.
+	 */
+	private boolean equals(int id , char[] buffer , int offset , int length)
+	{
+		int start = this.offsets[id];
+		
+		if(this.offsets[id + 1] - start != length) return false;
+		
+		for(int i = 0; i < length; i++)
+		{
+			if(this.chars[start + i] != buffer[offset + i]) return false;
+		}
+		
+		return true;
+	}
+	
+	
+	
+	
+	/**
+	 * Doubles the table and puts the ids in their new slots.
+	 */
+	private void rehash()
+	{
+		this.table = new int[2 * this.table.length];
+		Arrays.fill(this.table , EMPTY);
+		
+		int mask = this.table.length - 1;
+		
+		for(int id = 0; id < this.size; id++)
+		{
+			int slot = WordHash.hash(this.chars , this.offsets[id] , this.offsets[id + 1] - this.offsets[id]) & mask;
+			
+			while(this.table[slot] != EMPTY) slot = (slot + 1) & mask;
+			
+			this.table[slot] = id;
+		}
+	}
+}
@@ -0,0 +1,363 @@
+package part2.util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * @author Stamatis Pitsios
+ *
+ * Writes a run in the text format of Trec Eval : "query 0 document rank score tag" on every line.
+ * The numbers are formatted straight into a reusable byte buffer , that is written to the file through a FileChannel
+ * when it is full , so no String is created for a line.
+ *
+ * A score is written with the fewest digits that read back as the same float. From 0.001 up to 10^7 (every score of
+ * Lucene) this is what Float.toString() writes. Outside it , Float.toString() of Java 7 to 18 may add a digit that is not
+ * needed , and this writer writes the shorter number , as Float.toString() of Java 19 does.
+ * A writer is not thread safe.
+ */
+public class TrecRunWriter implements RunWriter
+{
+	
+	/**
+	 * The tag of the run , by default.
+	 */
+	public static final String DEFAULT_TAG = "STANDARD";
+	
+	/**
+	 * The size of the buffer.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	/**
+	 * The longest line , without the tag : 3 ints , a float and the separators.
+	 */
+	private static final int MAX_LINE = 3 * 11 + 16 + 8;
+	
+	/**
+	 * The powers of 10 that a float may need. They are exact as doubles.
+	 */
+	private static final double[] POWERS = new double[23];
+	
+	static
+	{
+		POWERS[0] = 1;
+		
+		for(int i = 1; i < POWERS.length; i++)
+		{
+			POWERS[i] = POWERS[i - 1] * 10;
+		}
+	}
+	
+	/**
+	 * The logarithm of 2 in base 10.
+	 */
+	private static final double LOG10_2 = Math.log10(2);
+	
+	/**
+	 * The channel of the file.
+	 */
+	private FileChannel channel;
+	
+	/**
+	 * The lines that have not been written to the file yet.
+	 */
+	private byte[] bytes;
+	
+	/**
+	 * The number of bytes of the lines.
+	 */
+	private int size;
+	
+	/**
+	 * The bytes , as a buffer for the channel.
+	 */
+	private ByteBuffer buffer;
+	
+	/**
+	 * The tag and the new line at the end of every line.
+	 */
+	private byte[] tag;
+	
+	/**
+	 * The digits of a number , from the last to the first.
+	 */
+	private byte[] digits;
+	
+	
+	
+	
+	/**
+	 * Constructor. The tag of the run is DEFAULT_TAG.
+	 *
+	 * @param path The path of the file of the run.
+	 *
+	 * @throws IOException If the file can not be created.
+	 */
+	public TrecRunWriter(String path) throws IOException
+	{
+		this(path , DEFAULT_TAG);
+	}
+	
+	
+	
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param path The path of the file of the run.
+	 * @param tag The tag of the run , at the end of every line.
+	 *
+	 * @throws IOException If the file can not be created.
+	 */
+	public TrecRunWriter(String path , String tag) throws IOException
+	{
+		this.channel = new FileOutputStream(path).getChannel();
+		this.bytes = new byte[BUFFER_SIZE];
+		this.size = 0;
+		this.buffer = ByteBuffer.wrap(this.bytes);
+		this.tag = (" " + tag + "\n").getBytes("UTF-8");
+		this.digits = new byte[20];
+	}
+	
+	
+	
+	
+	@Override
+	public void write(int queryId , int docId , int rank , float score) throws IOException
+	{
+		if(BUFFER_SIZE - this.size < MAX_LINE + this.tag.length) this.flush();
+		
+		this.putInt(queryId);
+		this.put(' ');
+		this.put('0');
+		this.put(' ');
+		this.putInt(docId);
+		this.put(' ');
+		this.putInt(rank);
+		this.put(' ');
+		this.putFloat(score);
+		System.arraycopy(this.tag , 0 , this.bytes , this.size , this.tag.length);
+		this.size += this.tag.length;
+	}
+	
+	
+	
+	
+	/**
+	 * Writes the buffer to the file and empties it.
+	 *
+	 * @throws IOException If the buffer can not be written.
+	 */
+	public void flush() throws IOException
+	{
+		this.buffer.limit(this.size).position(0);
+		
+		while(this.buffer.hasRemaining())
+		{
+			this.channel.write(this.buffer);
+		}
+		
+		this.size = 0;
+	}
+	
+	
+	
+	
+	@Override
+	public void close() throws IOException
+	{
+		this.flush();
+		this.channel.close();
+	}
+	
+	
+	
+	
+	/**
+	 * Adds the digits of an int to the buffer.
+	 */
+	private void putInt(int value)
+	{
+		long v = value;
+		
+		if(v < 0)
+		{
+			this.put('-');
+			v = -v;
+		}
+		
+		int n = 0;
+		
+		do
+		{
+			this.digits[n++] = (byte)('0' + v % 10);
+			v /= 10;
+		}
+		while(v > 0);
+		
+		while(n > 0)
+		{
+			this.put(this.digits[--n]);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Adds a float to the buffer , like Float.toString() : plain from 0.001 up to 10^7 , with an exponent otherwise.
+	 */
+	private void putFloat(float value)
+	{
+		if(Float.isNaN(value) || Float.isInfinite(value))
+		{
+			for(char c : Float.toString(value).toCharArray()) this.put(c);
+			return;
+		}
+		
+		if(value < 0 || (value == 0 && 1 / value < 0))
+		{
+			this.put('-');
+			value = -value;
+		}
+		
+		if(value == 0)
+		{
+			this.put('0');
+			this.put('.');
+			this.put('0');
+			return;
+		}
+		
+		double d = value;
+		
+		//The exponent of the first digit , from the binary exponent.
+		int exponent = (int)Math.floor(Math.getExponent(value) * LOG10_2);
+		while(power(exponent) > d) exponent--;
+		while(power(exponent + 1) <= d) exponent++;
+		
+		//Find the fewest digits (at least 2) that read back as the same float. If some digits read back , more digits
+		//read back too , so a binary search needs 3 tries instead of up to 8.
+		int low = 2 , high = 9;
+		
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			
+			if(this.round(d , exponent , middle) < 0) low = middle + 1;
+			else high = middle;
+		}
+		
+		int precision = low;
+		long mantissa = this.round(d , exponent , precision);
+		if(mantissa < 0) mantissa = -mantissa;
+		
+		//The rounding may carry to one more digit , like 9.99 to 10.0 .
+		if(mantissa >= (long)power(precision))
+		{
+			mantissa /= 10;
+			exponent++;
+		}
+		
+		//The digits , from the first to the last.
+		int n = 0;
+		for(long m = mantissa; n < precision; m /= 10) this.digits[n++] = (byte)('0' + m % 10);
+		
+		//Leave out the zeros at the end.
+		int last = 0;
+		while(last < n - 1 && this.digits[last] == '0') last++;
+		
+		if(exponent >= -3 && exponent < 7)
+		{
+			if(exponent < 0)
+			{
+				this.put('0');
+				this.put('.');
+				for(int i = -1; i > exponent; i--) this.put('0');
+				for(int i = n - 1; i >= last; i--) this.put(this.digits[i]);
+			}
+			
+			else
+			{
+				//The integer part , with zeros if the digits are fewer.
+				for(int i = 0; i <= exponent; i++) this.put(i < n ? this.digits[n - 1 - i] : '0');
+				
+				this.put('.');
+				
+				if(n - 1 - exponent > last)
+				{
+					for(int i = n - 2 - exponent; i >= last; i--) this.put(this.digits[i]);
+				}
+				
+				else
+				{
+					this.put('0');
+				}
+			}
+		}
+		
+		else
+		{
+			this.put(this.digits[n - 1]);
+			this.put('.');
+			
+			if(n - 2 >= last)
+			{
+				for(int i = n - 2; i >= last; i--) this.put(this.digits[i]);
+			}
+			
+			else
+			{
+				this.put('0');
+			}
+			
+			this.put('E');
+			this.putInt(exponent);
+		}
+	}
+	
+	
+	
+	
+	/**
+	 * Adds a byte to the buffer.
+	 */
+	private void put(int b)
+	{
+		this.bytes[this.size++] = (byte)b;
+	}
+	
+	
+	
+	
+	/**
+	 * Rounds a number to the given number of significant digits.
+	 *
+	 * @return digits The digits , as a long. They are negative if they do not read back as the same float.
+	 */
+	private long round(double d , int exponent , int precision)
+	{
+		int shift = precision - 1 - exponent;
+		long mantissa = (long)Math.rint(shift >= 0 ? d * power(shift) : d / power(-shift));
+		
+		double back = shift >= 0 ? mantissa / power(shift) : mantissa * power(-shift);
+		
+		return (float)back == (float)d ? mantissa : -mantissa;
+	}
+	
+	
+	
+	
+	/**
+	 * Returns 10 to the power of the given exponent.
+	 */
+	private static double power(int exponent)
+	{
+		if(exponent >= 0) return exponent < POWERS.length ? POWERS[exponent] : Math.pow(10 , exponent);
+		
+		return -exponent < POWERS.length ? 1 / POWERS[-exponent] : Math.pow(10 , exponent);
+	}
+}
\ No newline at end of file